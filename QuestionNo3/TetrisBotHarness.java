@@ -0,0 +1,142 @@
+// Algorithm Explanation
+// This harness evaluates Tetris placement heuristics by playing thousands of games on the headless
+// TetrisEngine, with no GUI and no timer. For every piece the bot enumerates each placement the
+// piece can be dropped into from its spawn row (every distinct rotation × every column it fits in),
+// simulates the drop and the line clears on a scratch copy of the bitboard, scores the resulting
+// board with a pluggable BoardHeuristic and plays the best one. Games run in parallel on a fixed pool
+// of worker threads, one engine and one scratch board per worker, pulling game numbers from a shared
+// counter. Game g always uses seed (base seed + g) and ties are broken by the first placement found,
+// so the per-game results, and therefore the report, are the same for a given seed however the games
+// are scheduled. The report gives games/sec and the score distribution (mean and percentiles) per
+// heuristic. Games are capped at a maximum number of pieces so a strong bot still terminates.
+// Run with: java TetrisBotHarness [games] [seed] [maxPieces]
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TetrisBotHarness {
+
+    // Scores a settled board after a placement; higher is better. Implementations must be stateless
+    // (or thread-confined), since one instance is shared by every worker.
+    interface BoardHeuristic {
+        double score(int[] board, int linesCleared);
+    }
+
+    // Linear combination of aggregate column height, cleared lines, holes and bumpiness, with the
+    // weights of the well-known hand-tuned "near perfect" bot
+    static final BoardHeuristic WEIGHTED_FEATURES = (board, linesCleared) -> {
+        int aggregateHeight = 0, holes = 0, bumpiness = 0;
+        int covered = 0; // Columns that have a filled cell in some row above
+        int[] heights = new int[TetrisEngine.BOARD_WIDTH];
+        for (int row = 0; row < TetrisEngine.BOARD_HEIGHT; row++) {
+            int cells = board[row];
+            holes += Integer.bitCount(covered & ~cells);
+            for (int newTops = cells & ~covered; newTops != 0; newTops &= newTops - 1) {
+                heights[Integer.numberOfTrailingZeros(newTops)] = TetrisEngine.BOARD_HEIGHT - row;
+            }
+            covered |= cells;
+        }
+        for (int col = 0; col < TetrisEngine.BOARD_WIDTH; col++) {
+            aggregateHeight += heights[col];
+            if (col > 0) bumpiness += Math.abs(heights[col] - heights[col - 1]);
+        }
+        return -0.510066 * aggregateHeight + 0.760666 * linesCleared - 0.35663 * holes - 0.184483 * bumpiness;
+    };
+
+    // Baseline: keep the stack as low as possible, preferring placements that clear lines
+    static final BoardHeuristic LOWEST_STACK = (board, linesCleared) -> {
+        int top = 0;
+        while (top < TetrisEngine.BOARD_HEIGHT && board[top] == 0) top++;
+        return linesCleared * TetrisEngine.BOARD_HEIGHT + top;
+    };
+
+    // Plays one game with the given heuristic and returns its score. scratch must hold BOARD_HEIGHT rows.
+    static int playGame(TetrisEngine engine, long seed, BoardHeuristic heuristic, int maxPieces, int[] scratch) {
+        engine.reset(seed);
+        while (!engine.isGameOver() && engine.piecesPlaced() < maxPieces) {
+            int shape = engine.currentShape();
+            int bestRotation = -1, bestX = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int rotation = 0; rotation < TetrisEngine.distinctRotations(shape); rotation++) {
+                int lastX = TetrisEngine.BOARD_WIDTH - TetrisEngine.pieceWidth(shape, rotation);
+                for (int x = 0; x <= lastX; x++) {
+                    engine.copyBoard(scratch);
+                    if (!TetrisEngine.fits(scratch, shape, rotation, x, 0)) continue;
+                    int y = TetrisEngine.dropRow(scratch, shape, rotation, x, 0);
+                    TetrisEngine.stamp(scratch, shape, rotation, x, y);
+                    int cleared = TetrisEngine.clearFullRows(scratch);
+                    double score = heuristic.score(scratch, cleared);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestRotation = rotation;
+                        bestX = x;
+                    }
+                }
+            }
+            if (bestRotation < 0) break; // No placement fits: the stack has reached the top
+            engine.place(bestRotation, bestX);
+        }
+        return engine.score();
+    }
+
+    // Plays games 0 .. games-1 (seeds baseSeed + g) on the given number of threads; returns the
+    // score of each game, indexed by game number
+    static int[] runGames(int games, long baseSeed, BoardHeuristic heuristic, int maxPieces, int threads)
+            throws Exception {
+        int[] scores = new int[games];
+        AtomicInteger nextGame = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = pool.submit(() -> {
+                    TetrisEngine engine = new TetrisEngine(baseSeed);
+                    int[] scratch = new int[TetrisEngine.BOARD_HEIGHT];
+                    for (int game; (game = nextGame.getAndIncrement()) < games; ) {
+                        scores[game] = playGame(engine, baseSeed + game, heuristic, maxPieces, scratch);
+                    }
+                });
+            }
+            for (Future<?> worker : workers) worker.get(); // Also publishes the workers' writes to scores
+        } finally {
+            pool.shutdown();
+        }
+        return scores;
+    }
+
+    private static void report(String name, int games, long seed, BoardHeuristic heuristic, int maxPieces,
+                               int threads) throws Exception {
+        long start = System.nanoTime();
+        int[] scores = runGames(games, seed, heuristic, maxPieces, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (int score : scores) total += score;
+        System.out.printf("%-17s %,9.0f games/sec  mean %9.1f  p10 %7d  p50 %7d  p90 %7d  max %7d%n",
+                name, games / seconds, total / (double) games, percentile(sorted, 10), percentile(sorted, 50),
+                percentile(sorted, 90), sorted[games - 1]);
+    }
+
+    private static int percentile(int[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int maxPieces = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%,d games, seed %d, at most %,d pieces per game, %d threads%n",
+                games, seed, maxPieces, threads);
+        for (int round = 0; round < 2; round++) { // The first round warms up the JIT
+            if (round == 1) System.out.println();
+            report("weighted features", games, seed, WEIGHTED_FEATURES, maxPieces, threads);
+            report("lowest stack", games, seed, LOWEST_STACK, maxPieces, threads);
+        }
+    }
+}
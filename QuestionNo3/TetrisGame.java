@@ -1,8 +1,8 @@
 // Algorithm Explanation
 // This Java program implements a simple Tetris game using Swing for graphical rendering and 
 // AWT for event handling. The game board is a 10x20 grid, where different shaped blocks (Tetrominoes) 
-// fall from the top. The game initializes with an empty board and generates random blocks using a 
-// queue mechanism (nextBlocks). The current block moves downward automatically using a Timer with a 
+// fall from the top. The game initializes with an empty board and generates random blocks into a
+// queue of upcoming blocks. The current block moves downward automatically using a Timer with a 
 // normal speed of 500 milliseconds per step. The player can control the block using keyboard inputs 
 // (left, right, rotate, and fast drop). Collision detection prevents blocks from moving out of bounds
 // or overlapping placed blocks. When a block reaches an obstacle, it is placed permanently on the board,
@@ -11,56 +11,47 @@
 // the game ends, and a Game Over message displays with the elapsed time and score. The game also features a
 // next block preview, a score display, and a timer. Additionally, a button panel at the bottom allows block
 // movement using GUI buttons. The rendering is handled in the paintComponent method, drawing the grid, placed
-// blocks, active block, and sidebar information. The game efficiently manages blocks
-// using a stack for placed blocks and a queue for upcoming blocks, ensuring smooth gameplay
+// blocks, active block, and sidebar information. The rules themselves (shapes, rotation, spawn,
+// gravity, line clearing and scoring) are those of the headless TetrisEngine: the panel steps one
+// engine from its timer, keys and buttons and draws its board, so the game, TetrisBotHarness and
+// replays all play by the same rules.
 
 
 // Import necessary Java Swing and AWT classes for GUI and event handling
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Stack;
+import java.awt.image.BufferedImage;
 
 public class TetrisGame extends JPanel implements ActionListener {
      // Constants for game board size and block size
-    private final int BOARD_WIDTH = 10;
-    private final int BOARD_HEIGHT = 20;
+    private final int BOARD_WIDTH = TetrisEngine.BOARD_WIDTH;
+    private final int BOARD_HEIGHT = TetrisEngine.BOARD_HEIGHT;
     private final int BLOCK_SIZE = 30;
     // Timer to control block movement
     private Timer timer;
-    private boolean gameOver = false;
-    private int score = 0;
     private long startTime;
-     // 2D array representing the game board (grid)
-    private int[][] board = new int[BOARD_HEIGHT][BOARD_WIDTH];
-    // The current falling block and its position
-    private int[][] currentBlock;
-    private int currentX = 4, currentY = 0;
-    // Stack to store placed blocks and queue for upcoming blocks
-    private Stack<int[][]> placedBlocks = new Stack<>();
-    private Queue<int[][]> nextBlocks = new LinkedList<>();
+    // Board, falling block, upcoming blocks and score; a new seed for every game
+    private final TetrisEngine engine = new TetrisEngine(System.nanoTime());
       // Speed settings for normal and fast drops
     private final int NORMAL_SPEED = 500;
     private final int FAST_SPEED = 100;
+    private static final int SIDEBAR_WIDTH = 150;
 
-    // Array of predefined Tetromino shapes
-    private final int[][][] SHAPES = {
-        {{1, 1, 1, 1}},
-        {{1, 1}, {1, 1}},
-        {{1, 1, 0}, {0, 1, 1}},
-        {{0, 1, 1}, {1, 1, 0}},
-        {{1, 1, 1}, {0, 1, 0}},
-        {{1, 1, 1}, {1, 0, 0}},
-        {{1, 1, 1}, {0, 0, 1}}
-    };
+    // Cached image of the grid and the placed blocks, redrawn only when the board changes
+    private final BufferedImage boardLayer = new BufferedImage(BOARD_WIDTH * BLOCK_SIZE + 1,
+            BOARD_HEIGHT * BLOCK_SIZE + 1, BufferedImage.TYPE_INT_RGB);
+    private boolean boardLayerValid = false;
+    private long shownSeconds = -1; // Elapsed time currently shown in the sidebar
+    private static final boolean PAINT_TIMING = Boolean.getBoolean("tetris.paintTiming");
+    private int paintCount;
+    private long paintNanos, paintedPixels;
 
     // Constructor to set up the game
 
     public TetrisGame() {
         // Set game window size and background color
-        setPreferredSize(new Dimension(BOARD_WIDTH * BLOCK_SIZE + 150, BOARD_HEIGHT * BLOCK_SIZE));
+        setPreferredSize(new Dimension(BOARD_WIDTH * BLOCK_SIZE + SIDEBAR_WIDTH, BOARD_HEIGHT * BLOCK_SIZE));
         setBackground(Color.BLACK);
         setFocusable(true);
         requestFocusInWindow();
@@ -79,11 +70,6 @@ public class TetrisGame extends JPanel implements ActionListener {
             }
         });
 
-        // Initialize the first set of blocks
-        for (int i = 0; i < 3; i++) nextBlocks.add(getRandomBlock());
-        currentBlock = nextBlocks.poll();
-        nextBlocks.add(getRandomBlock());
-
               // Start the game timer
 
         timer = new Timer(NORMAL_SPEED, this);
@@ -91,30 +77,23 @@ public class TetrisGame extends JPanel implements ActionListener {
         timer.start();
     }
 
-    // Method to get a random Tetromino shape
-    private int[][] getRandomBlock() {
-        return SHAPES[(int) (Math.random() * SHAPES.length)];
-    }
-
      // Timer event to move the block down automatically
     public void actionPerformed(ActionEvent e) {
-        if (!gameOver) {
-            currentY++;
-            if (collision()) {
-                currentY--;
-                placeBlock();
-                checkFullLines();
-                currentBlock = nextBlocks.poll();
-                nextBlocks.add(getRandomBlock());
-                currentX = 4;
-                currentY = 0;
-                if (collision()) {
-                    gameOver = true;
+        if (!engine.isGameOver()) {
+            Rectangle before = pieceBounds();
+            int placed = engine.piecesPlaced();
+            engine.tick();
+            if (engine.piecesPlaced() != placed) { // The block landed: lines cleared, next block spawned
+                boardLayerValid = false;
+                if (engine.isGameOver()) {
                     timer.stop();
                     showGameOverDialog();
                 }
+                repaint(); // The board, score and next block all changed
+            } else {
+                repaint(before.union(pieceBounds()));
             }
-            repaint();
+            repaintClockIfChanged();
         }
     }
 
@@ -127,135 +106,129 @@ public class TetrisGame extends JPanel implements ActionListener {
     }
 
     private void moveLeft() {
-        currentX--;
-        if (collision()) currentX++;
-        repaint();
+        Rectangle before = pieceBounds();
+        if (engine.moveLeft()) repaint(before.union(pieceBounds()));
     }
 
     private void moveRight() {
-        currentX++;
-        if (collision()) currentX--;
-        repaint();
+        Rectangle before = pieceBounds();
+        if (engine.moveRight()) repaint(before.union(pieceBounds()));
     }
 
     private void rotateBlock() {
-        int[][] rotated = new int[currentBlock[0].length][currentBlock.length];
-        for (int row = 0; row < currentBlock.length; row++) {
-            for (int col = 0; col < currentBlock[row].length; col++) {
-                rotated[col][currentBlock.length - 1 - row] = currentBlock[row][col];
-            }
-        }
-        int[][] temp = currentBlock;
-        currentBlock = rotated;
-        if (collision()) currentBlock = temp;
-        repaint();
+        Rectangle before = pieceBounds();
+        if (engine.rotate()) repaint(before.union(pieceBounds()));
     }
 
-    private boolean collision() {
-        for (int row = 0; row < currentBlock.length; row++) {
-            for (int col = 0; col < currentBlock[row].length; col++) {
-                if (currentBlock[row][col] == 1) {
-                    int x = currentX + col;
-                    int y = currentY + row;
-                    if (x < 0 || x >= BOARD_WIDTH || y >= BOARD_HEIGHT || board[y][x] == 1) return true;
-                }
-            }
-        }
-        return false;
+    // Screen area covered by the falling block
+    private Rectangle pieceBounds() {
+        int shape = engine.currentShape(), rotation = engine.currentRotation();
+        return new Rectangle(engine.currentX() * BLOCK_SIZE, engine.currentY() * BLOCK_SIZE,
+                TetrisEngine.pieceWidth(shape, rotation) * BLOCK_SIZE,
+                TetrisEngine.pieceHeight(shape, rotation) * BLOCK_SIZE);
     }
 
-    private void placeBlock() {
-        for (int row = 0; row < currentBlock.length; row++) {
-            for (int col = 0; col < currentBlock[row].length; col++) {
-                if (currentBlock[row][col] == 1) {
-                    board[currentY + row][currentX + col] = 1;
-                }
-            }
-        }
-        placedBlocks.push(currentBlock);
-    }
-
-    private void checkFullLines() {
-        for (int row = 0; row < BOARD_HEIGHT; row++) {
-            boolean fullLine = true;
-            for (int col = 0; col < BOARD_WIDTH; col++) {
-                if (board[row][col] == 0) {
-                    fullLine = false;
-                    break;
-                }
-            }
-            if (fullLine) {
-                score += 100;
-                for (int r = row; r > 0; r--) {
-                    System.arraycopy(board[r - 1], 0, board[r], 0, BOARD_WIDTH);
-                }
-                repaint();
-            }
+    // Repaints the elapsed time in the sidebar once per second
+    private void repaintClockIfChanged() {
+        if ((System.currentTimeMillis() - startTime) / 1000 != shownSeconds) {
+            repaint(BOARD_WIDTH * BLOCK_SIZE + 1, 60, SIDEBAR_WIDTH, 30);
         }
     }
 
     private void showGameOverDialog() {
         long totalTime = (System.currentTimeMillis() - startTime) / 1000;
-        JOptionPane.showMessageDialog(this, "Game Over!\nTime: " + totalTime + " sec\nScore: " + score, "Game Over", JOptionPane.INFORMATION_MESSAGE);
+        JOptionPane.showMessageDialog(this, "Game Over!\nTime: " + totalTime + " sec\nScore: " + engine.score(), "Game Over", JOptionPane.INFORMATION_MESSAGE);
     }
     
 
     public void paintComponent(Graphics g) {
+        long paintStart = PAINT_TIMING ? System.nanoTime() : 0;
         super.paintComponent(g);
-        
-        // Draw Grid
-        g.setColor(Color.GRAY);
-        for (int x = 0; x <= BOARD_WIDTH * BLOCK_SIZE; x += BLOCK_SIZE) {
-            g.drawLine(x, 0, x, BOARD_HEIGHT * BLOCK_SIZE);
-        }
-        for (int y = 0; y <= BOARD_HEIGHT * BLOCK_SIZE; y += BLOCK_SIZE) {
-            g.drawLine(0, y, BOARD_WIDTH * BLOCK_SIZE, y);
-        }
-        
-        // Draw Placed Blocks
-        g.setColor(Color.GREEN);
-        for (int row = 0; row < BOARD_HEIGHT; row++) {
-            for (int col = 0; col < BOARD_WIDTH; col++) {
-                if (board[row][col] == 1) {
-                    g.fillRect(col * BLOCK_SIZE, row * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-                }
-            }
-        }
+
+        // Draw Grid and Placed Blocks from the cached layer
+        if (!boardLayerValid) renderBoardLayer();
+        g.drawImage(boardLayer, 0, 0, null);
     
         // Draw Current Block
         g.setColor(Color.RED);
-        for (int row = 0; row < currentBlock.length; row++) {
-            for (int col = 0; col < currentBlock[row].length; col++) {
-                if (currentBlock[row][col] == 1) {
-                    g.fillRect((currentX + col) * BLOCK_SIZE, (currentY + row) * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-                }
-            }
-        }
+        drawPiece(g, engine.currentShape(), engine.currentRotation(), engine.currentX() * BLOCK_SIZE,
+                engine.currentY() * BLOCK_SIZE);
     
+        // The sidebar is skipped when only part of the board is being repainted
+        Rectangle clip = g.getClipBounds();
+        if (clip == null || clip.x + clip.width > BOARD_WIDTH * BLOCK_SIZE + 1) paintSidebar(g);
+        if (PAINT_TIMING) recordPaintTime(System.nanoTime() - paintStart, clip);
+    }
+
+    private void paintSidebar(Graphics g) {
         // Sidebar area start position
         int sidebarX = BOARD_WIDTH * BLOCK_SIZE + 10;
         
         // Display Score with spacing
         g.setColor(Color.WHITE);
-        g.drawString("Score: " + score, sidebarX, 50);
+        g.drawString("Score: " + engine.score(), sidebarX, 50);
         
         // Display Elapsed Time with spacing
         long elapsedTime = (System.currentTimeMillis() - startTime) / 1000;
+        shownSeconds = elapsedTime;
         g.drawString("Time: " + elapsedTime + " sec", sidebarX, 80);
         
         // Draw Next Block Preview slightly lower
         g.drawString("Next Block:", sidebarX, 120);
-        int[][] nextBlock = nextBlocks.peek();
-        if (nextBlock != null) {
-            int nextBlockOffsetY = 130; // Lowering the position of next block preview
-            for (int row = 0; row < nextBlock.length; row++) {
-                for (int col = 0; col < nextBlock[row].length; col++) {
-                    if (nextBlock[row][col] == 1) {
-                        g.fillRect(sidebarX + col * BLOCK_SIZE, nextBlockOffsetY + row * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
-                    }
+        int nextBlockOffsetY = 130; // Lowering the position of next block preview
+        drawPiece(g, engine.nextShape(0), 0, sidebarX, nextBlockOffsetY);
+    }
+
+    // Fills the cells of a piece in the given rotation, with its top-left corner at (x, y) in pixels
+    private void drawPiece(Graphics g, int shape, int rotation, int x, int y) {
+        for (int row = 0; row < TetrisEngine.pieceHeight(shape, rotation); row++) {
+            int cells = TetrisEngine.pieceRow(shape, rotation, row);
+            for (int col = 0; cells >>> col != 0; col++) {
+                if ((cells >>> col & 1) != 0) g.fillRect(x + col * BLOCK_SIZE, y + row * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+            }
+        }
+    }
+
+    // Redraws the grid and the settled blocks into the cached layer. Only needed after a block is
+    // placed or lines are cleared; every other frame just copies the layer.
+    private void renderBoardLayer() {
+        Graphics2D g = boardLayer.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, boardLayer.getWidth(), boardLayer.getHeight());
+
+        // Draw Grid
+        g.setColor(Color.GRAY);
+        for (int x = 0; x <= BOARD_WIDTH * BLOCK_SIZE; x += BLOCK_SIZE) {
+            g.drawLine(x, 0, x, BOARD_HEIGHT * BLOCK_SIZE);
+        }
+        for (int y = 0; y <= BOARD_HEIGHT * BLOCK_SIZE; y += BLOCK_SIZE) {
+            g.drawLine(0, y, BOARD_WIDTH * BLOCK_SIZE, y);
+        }
+
+        // Draw Placed Blocks
+        g.setColor(Color.GREEN);
+        for (int row = 0; row < BOARD_HEIGHT; row++) {
+            for (int col = 0; col < BOARD_WIDTH; col++) {
+                if (engine.isOccupied(row, col)) {
+                    g.fillRect(col * BLOCK_SIZE, row * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
                 }
             }
         }
+        g.dispose();
+        boardLayerValid = true;
+    }
+
+    // With -Dtetris.paintTiming=true, prints the average paint time and repainted area every 100 frames
+    private void recordPaintTime(long nanos, Rectangle clip) {
+        paintNanos += nanos;
+        paintedPixels += clip == null ? (long) getWidth() * getHeight() : (long) clip.width * clip.height;
+        if (++paintCount == 100) {
+            System.out.printf("Paint: %.1f us/frame, %,d px/frame%n", paintNanos / 1e3 / paintCount,
+                    paintedPixels / paintCount);
+            paintCount = 0;
+            paintNanos = 0;
+            paintedPixels = 0;
+        }
     }
     
 
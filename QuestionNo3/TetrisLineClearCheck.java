@@ -0,0 +1,55 @@
+// Randomized check of TetrisEngine.clearFullRows, the line clearing TetrisGame plays by, against a
+// straightforward reference: keep the rows that are not full, in order, and refill the top with empty
+// rows. Boards are 10x20 bitboards (one 10-bit mask per row), and each row is made full with
+// probability 1/3, so boards with adjacent full rows, full rows at the top and bottom, and fully
+// cleared boards all come up often. Every board is cleared by both, and the boards and line counts
+// must match; IllegalStateException reports the first difference.
+// Run with: java TetrisLineClearCheck [boards] [seed]
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class TetrisLineClearCheck {
+    private static final int HEIGHT = TetrisEngine.BOARD_HEIGHT;
+
+    public static void main(String[] args) {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        long lines = 0;
+        for (int b = 0; b < boards; b++) {
+            int[] board = randomBoard(random);
+            int[] expected = board.clone();
+            int expectedLines = reference(expected);
+            int cleared = TetrisEngine.clearFullRows(board);
+            if (cleared != expectedLines || !Arrays.equals(board, expected)) {
+                throw new IllegalStateException("Board " + b + " (seed " + seed + "): cleared " + cleared
+                        + " lines, expected " + expectedLines + "\n" + Arrays.toString(board)
+                        + "\nexpected\n" + Arrays.toString(expected));
+            }
+            lines += cleared;
+        }
+        System.out.printf("ok: %,d boards, %,d lines cleared%n", boards, lines);
+    }
+
+    private static int[] randomBoard(SplittableRandom random) {
+        int[] board = new int[HEIGHT];
+        for (int row = 0; row < HEIGHT; row++) {
+            if (random.nextInt(3) == 0) {
+                board[row] = TetrisEngine.FULL_ROW;
+            } else if (random.nextInt(4) != 0) { // Plenty of empty rows as well
+                board[row] = random.nextInt(TetrisEngine.FULL_ROW + 1);
+            }
+        }
+        return board;
+    }
+
+    // Filter and refill
+    private static int reference(int[] board) {
+        int[] kept = Arrays.stream(board).filter(row -> row != TetrisEngine.FULL_ROW).toArray();
+        int cleared = board.length - kept.length;
+        Arrays.fill(board, 0, cleared, 0);
+        System.arraycopy(kept, 0, board, cleared, kept.length);
+        return cleared;
+    }
+}
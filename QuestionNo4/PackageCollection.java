@@ -6,11 +6,23 @@
  * The goal is to collect all packages and return to the starting point using the minimum number of roads.
  *
  * Approach:
- * 1. Construct the graph using an adjacency list.
- * 2. Perform a Depth First Search (DFS) to traverse the graph and collect all packages.
- * 3. If a node has a package or leads to a package, we count the roads used.
+ * 1. Construct the graph in compressed sparse row (CSR) form: a first pass over the roads counts
+ *    each location's degree into offsets, a second pass fills a flat targets array.
+ * 2. Perform an iterative Depth First Search (DFS) with an explicit stack to order the nodes.
+ * 3. Walk that order backwards (post-order), so every child is finished before its parent.
+ *    If a node has a package or leads to a package, we count the roads used.
  * 4. The DFS ensures that all roads traveled are counted twice (forward and return).
  * 5. The final answer is the total number of roads traveled.
+ *
+ * Using primitive arrays instead of List<Integer>[] avoids boxing every neighbor, and the explicit
+ * stack keeps path-shaped trees of millions of nodes from overflowing the thread stack.
+ *
+ * Starting Anywhere, Collecting Within Distance 2:
+ * 1. Repeatedly trim leaves that have no package; such roads never need to be walked.
+ * 2. Trim two more layers of leaves using a queue of degrees: a package on a leaf, or on a
+ *    leaf's neighbor, can be collected from two roads away.
+ * 3. Every road left between the surviving locations is walked twice (forward and return).
+ * Each location enters the queue at most once, so this runs in O(n) time.
  */
 
  import java.util.*;
@@ -26,61 +38,194 @@
       * @return          Minimum number of roads required
       */
      public static int minRoadsToCollectPackages(int n, int[][] roads, int[] packages) {
-         List<Integer>[] graph = new ArrayList[n];
-         
-         // Initialize adjacency list
+         if (n == 0) return 0;
+         int[] offsets = buildOffsets(n, roads);
+         return minRoadsToCollectPackages(offsets, buildTargets(offsets, roads), packages);
+     }
+ 
+     /**
+      * Same as {@link #minRoadsToCollectPackages(int, int[][], int[])} on a graph already in CSR form.
+      *
+      * @param offsets   CSR offsets of length n + 1
+      * @param targets   CSR targets
+      * @param packages  Array indicating package presence at each node
+      * @return          Number of roads used for collecting packages, starting from location 0
+      */
+     static int minRoadsToCollectPackages(int[] offsets, int[] targets, int[] packages) {
+         int n = offsets.length - 1;
+         // order[] receives nodes in DFS pre-order; parent[] doubles as the visited marker
+         int[] order = new int[n];
+         int[] parent = new int[n];
+         Arrays.fill(parent, -1);
+         int visitedCount = dfsOrder(0, offsets, targets, order, parent);
+ 
+         // roadsBelow[v] is the number of roads needed inside v's subtree
+         int[] roadsBelow = new int[n];
+         for (int i = visitedCount - 1; i > 0; i--) {
+             int node = order[i];
+             // If the path leads to a package, count the roads (both forward and return)
+             if (roadsBelow[node] > 0 || packages[node] == 1) {
+                 roadsBelow[parent[node]] += roadsBelow[node] + 2;
+             }
+         }
+         return roadsBelow[0];
+     }
+ 
+     /**
+      * Calculates the minimum roads required when the start location may be chosen freely and
+      * a package can be collected from any location within distance 2 of it.
+      *
+      * @param n         Number of locations (nodes)
+      * @param roads     List of roads (edges) connecting the locations, forming a tree
+      * @param packages  Array indicating which locations contain a package (1 if present, 0 otherwise)
+      * @return          Minimum number of roads required
+      */
+     public static int minRoadsWithinDistanceTwo(int n, int[][] roads, int[] packages) {
+         if (n == 0) return 0;
+         int[] offsets = buildOffsets(n, roads);
+         return minRoadsWithinDistanceTwo(offsets, buildTargets(offsets, roads), packages);
+     }
+ 
+     /**
+      * Same as {@link #minRoadsWithinDistanceTwo(int, int[][], int[])} on a tree already in CSR form.
+      *
+      * @param offsets   CSR offsets of length n + 1
+      * @param targets   CSR targets
+      * @param packages  Array indicating package presence at each node
+      * @return          Minimum number of roads required
+      */
+     static int minRoadsWithinDistanceTwo(int[] offsets, int[] targets, int[] packages) {
+         int n = offsets.length - 1;
+         int[] degree = new int[n];
+         boolean[] removed = new boolean[n];
+         int[] queue = new int[n];
+         int head = 0, tail = 0;
+         int remaining = n;
+ 
+         // Step 1: peel package-free leaves until every leaf holds a package
+         for (int v = 0; v < n; v++) {
+             degree[v] = offsets[v + 1] - offsets[v];
+             if (degree[v] == 1 && packages[v] == 0) queue[tail++] = v;
+         }
+         while (head < tail) {
+             int leaf = queue[head++];
+             removed[leaf] = true;
+             remaining--;
+             for (int i = offsets[leaf]; i < offsets[leaf + 1]; i++) {
+                 int neighbor = targets[i];
+                 if (!removed[neighbor] && --degree[neighbor] == 1 && packages[neighbor] == 0) {
+                     queue[tail++] = neighbor;
+                 }
+             }
+         }
+ 
+         // Step 2: peel two full layers of leaves, one layer at a time
+         head = 0;
+         tail = 0;
+         for (int v = 0; v < n; v++) {
+             if (!removed[v] && degree[v] == 1) queue[tail++] = v;
+         }
+         for (int layer = 0; layer < 2; layer++) {
+             int layerEnd = tail;
+             while (head < layerEnd) {
+                 int leaf = queue[head++];
+                 removed[leaf] = true;
+                 remaining--;
+                 for (int i = offsets[leaf]; i < offsets[leaf + 1]; i++) {
+                     int neighbor = targets[i];
+                     // Leaves found now belong to the next layer; a neighbor already queued in
+                     // this layer drops to degree 0 and is not queued twice
+                     if (!removed[neighbor] && --degree[neighbor] == 1) {
+                         queue[tail++] = neighbor;
+                     }
+                 }
+             }
+         }
+ 
+         // Step 3: the survivors form a tree whose roads are each walked twice
+         return Math.max(remaining - 1, 0) * 2;
+     }
+ 
+     /**
+      * First CSR pass: counts the degree of every location and turns the counts into prefix offsets.
+      * The neighbors of node v are stored in targets[offsets[v] .. offsets[v + 1] - 1].
+      *
+      * @param n         Number of locations (nodes)
+      * @param roads     List of roads (edges) connecting the locations
+      * @return          Offsets array of length n + 1
+      */
+     static int[] buildOffsets(int n, int[][] roads) {
+         int[] offsets = new int[n + 1];
+         for (int[] road : roads) {
+             offsets[road[0] + 1]++;
+             offsets[road[1] + 1]++;
+         }
          for (int i = 0; i < n; i++) {
-             graph[i] = new ArrayList<>();
+             offsets[i + 1] += offsets[i];
          }
-         
-         // Construct the graph
+         return offsets;
+     }
+ 
+     /**
+      * Second CSR pass: writes both directions of every road into a flat targets array.
+      *
+      * @param offsets   Offsets produced by {@link #buildOffsets}
+      * @param roads     List of roads (edges) connecting the locations
+      * @return          Targets array of length 2 * roads.length
+      */
+     static int[] buildTargets(int[] offsets, int[][] roads) {
+         int n = offsets.length - 1;
+         int[] cursor = Arrays.copyOf(offsets, n);
+         int[] targets = new int[offsets[n]];
          for (int[] road : roads) {
-             graph[road[0]].add(road[1]);
-             graph[road[1]].add(road[0]);
+             targets[cursor[road[0]]++] = road[1];
+             targets[cursor[road[1]]++] = road[0];
          }
-         
-         boolean[] visited = new boolean[n];
-         return dfs(0, graph, packages, visited);
+         return targets;
      }
  
      /**
-      * DFS function to traverse the graph and count roads needed to collect packages.
-      * 
-      * @param node      Current node being visited
-      * @param graph     Adjacency list representing the graph
-      * @param packages  Array indicating package presence at each node
-      * @param visited   Boolean array to track visited nodes
-      * @return          Number of roads used for collecting packages
+      * Iterative DFS from the given root using an explicit stack.
+      * Every node is recorded in pre-order, so walking the order backwards visits children before parents.
+      *
+      * @param root      Starting node
+      * @param offsets   CSR offsets
+      * @param targets   CSR targets
+      * @param order     Output: nodes in the order they were discovered
+      * @param parent    Output: parent of each discovered node (root points to itself, -1 means unvisited)
+      * @return          Number of nodes reached from the root
       */
-     private static int dfs(int node, List<Integer>[] graph, int[] packages, boolean[] visited) {
-         visited[node] = true;
-         int totalRoads = 0;
-         
-         // Explore all neighbors
-         for (int neighbor : graph[node]) {
-             if (!visited[neighbor]) {
-                 int roadsUsed = dfs(neighbor, graph, packages, visited);
-                 
-                 // If the path leads to a package, count the roads (both forward and return)
-                 if (roadsUsed > 0 || packages[neighbor] == 1) {
-                     totalRoads += roadsUsed + 2;
+     static int dfsOrder(int root, int[] offsets, int[] targets, int[] order, int[] parent) {
+         int[] stack = new int[order.length];
+         int top = 0;
+         int count = 0;
+         stack[top++] = root;
+         parent[root] = root;
+         while (top > 0) {
+             int node = stack[--top];
+             order[count++] = node;
+             for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                 int neighbor = targets[i];
+                 if (parent[neighbor] == -1) {
+                     parent[neighbor] = node;
+                     stack[top++] = neighbor;
                  }
              }
          }
-         return totalRoads;
+         return count;
      }
  
      public static void main(String[] args) {
          // Test case 1
          int[] packages1 = {1, 0, 0, 0, 0, 1};
          int[][] roads1 = {{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 5}};
-         System.out.println("Output: " + minRoadsToCollectPackages(6, roads1, packages1));
+         System.out.println("Output: " + minRoadsWithinDistanceTwo(6, roads1, packages1));
          // Expected Output: 2
  
          // Test case 2
          int[] packages2 = {0, 0, 0, 1, 1, 0, 0, 1};
          int[][] roads2 = {{0, 1}, {0, 2}, {1, 3}, {1, 4}, {2, 5}, {5, 6}, {5, 7}};
-         System.out.println("Output: " + minRoadsToCollectPackages(8, roads2, packages2));
+         System.out.println("Output: " + minRoadsWithinDistanceTwo(8, roads2, packages2));
          // Expected Output: 2
      }
  }
@@ -0,0 +1,76 @@
+/**
+ * Benchmark Explanation:
+ * ----------------------
+ * Compares the two PackageCollection engines on large random trees:
+ * - minRoadsToCollectPackages: post-order DFS counting subtree roads from location 0.
+ * - minRoadsWithinDistanceTwo: leaf trimming with a queue of degrees.
+ *
+ * Both engines run on the same CSR graph so the timings measure only the traversal.
+ * Trees are generated by attaching every node i > 0 to a random earlier node, which mixes
+ * deep paths with bushy regions. Run with an optional node count, e.g.
+ *     java PackageCollectionBenchmark 10000000
+ */
+
+ import java.util.*;
+
+ public class PackageCollectionBenchmark {
+
+     private static final int WARMUP_ROUNDS = 3;
+     private static final int MEASURED_ROUNDS = 5;
+
+     public static void main(String[] args) {
+         int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+         double packageRatio = args.length > 1 ? Double.parseDouble(args[1]) : 0.01;
+
+         Random random = new Random(42);
+         int[] parent = new int[n];
+         int[] packages = new int[n];
+         for (int i = 1; i < n; i++) {
+             // Bias towards recent nodes to create long chains as well as wide fans
+             parent[i] = random.nextBoolean() ? i - 1 : random.nextInt(i);
+         }
+         for (int i = 0; i < n; i++) {
+             packages[i] = random.nextDouble() < packageRatio ? 1 : 0;
+         }
+
+         // Build CSR directly from the parent array to avoid materializing int[n - 1][2]
+         int[] offsets = new int[n + 1];
+         for (int i = 1; i < n; i++) {
+             offsets[parent[i] + 1]++;
+             offsets[i + 1]++;
+         }
+         for (int i = 0; i < n; i++) {
+             offsets[i + 1] += offsets[i];
+         }
+         int[] cursor = Arrays.copyOf(offsets, n);
+         int[] targets = new int[offsets[n]];
+         for (int i = 1; i < n; i++) {
+             targets[cursor[parent[i]]++] = i;
+             targets[cursor[i]++] = parent[i];
+         }
+         parent = null;
+         cursor = null;
+
+         System.out.println("Nodes: " + n + ", packages: ~" + (int) (n * packageRatio));
+         measure("DFS from location 0      ", () -> PackageCollection.minRoadsToCollectPackages(offsets, targets, packages));
+         measure("Distance-2 leaf trimming ", () -> PackageCollection.minRoadsWithinDistanceTwo(offsets, targets, packages));
+     }
+
+     private static void measure(String label, java.util.function.IntSupplier engine) {
+         int result = 0;
+         for (int i = 0; i < WARMUP_ROUNDS; i++) {
+             result = engine.getAsInt();
+         }
+         long best = Long.MAX_VALUE;
+         long total = 0;
+         for (int i = 0; i < MEASURED_ROUNDS; i++) {
+             long start = System.nanoTime();
+             result = engine.getAsInt();
+             long elapsed = System.nanoTime() - start;
+             best = Math.min(best, elapsed);
+             total += elapsed;
+         }
+         System.out.printf("%s result=%d  best=%.1f ms  avg=%.1f ms%n",
+                 label, result, best / 1e6, total / 1e6 / MEASURED_ROUNDS);
+     }
+ }
@@ -0,0 +1,254 @@
+/**
+ * Algorithm Explanation:
+ * ----------------------
+ * PackageRoutePlanner keeps a tree of locations in memory and answers the minimum number of roads
+ * needed to collect all packages while packages are added and removed one location at a time.
+ *
+ * Approach:
+ * 1. Root the tree at location 0 and split it into heavy paths (heavy-light decomposition).
+ *    Nodes are numbered in DFS order with the heavy child first, so every subtree occupies one
+ *    contiguous range of positions and every root-to-node path crosses O(log n) heavy paths.
+ * 2. A Fenwick tree over those positions stores 1 for each location holding a package. The
+ *    package count of a subtree is one range sum, and the packages nearest to a position in
+ *    DFS order are found by an order-statistic search on the same Fenwick tree.
+ * 3. For terminals sorted in DFS order t1, t2, ..., tk, the smallest subtree connecting them has
+ *    exactly (dist(t1, t2) + ... + dist(tk-1, tk) + dist(tk, t1)) / 2 roads. Walking it costs twice
+ *    that, so the road count is the cyclic distance sum itself.
+ * 4. Adding terminal v between its DFS-order neighbors a and b changes the sum by
+ *    dist(a, v) + dist(v, b) - dist(a, b); removing it reverses the change. Distances use the
+ *    heavy paths to find the lowest common ancestor.
+ *
+ * Two sums are maintained:
+ * - From location 0: terminals are the packages plus location 0, matching
+ *   PackageCollection.minRoadsToCollectPackages.
+ * - From the best start: terminals are the packages only.
+ *
+ * Time Complexity:
+ * - Construction: O(n log n) (O(n) for the decomposition, O(log n) per initial package).
+ * - addPackage / removePackage / packagesInSubtree: O(log n).
+ * - Road counts: O(1).
+ */
+
+import java.util.Arrays;
+
+public final class PackageRoutePlanner {
+    private final int n;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] head; // Top node of the heavy path containing each node
+    private final int[] pos; // Position of each node in heavy-first DFS order
+    private final int[] nodeAtPos; // Inverse of pos
+    private final int[] subtreeSize;
+    private final int[] fenwick; // 1-based Fenwick tree over positions
+    private final int fenwickTopBit;
+    private final boolean[] hasPackage;
+    private int packageCount;
+    private long roadsFromStart; // Cyclic distance sum over packages plus location 0
+    private long roadsFromBestStart; // Cyclic distance sum over packages only
+
+    /**
+     * Builds the planner for a tree of locations.
+     *
+     * @param n         Number of locations (nodes)
+     * @param roads     List of roads (edges) connecting the locations; must form a tree
+     * @param packages  Initial package presence at each location (1 if present, 0 otherwise)
+     */
+    public PackageRoutePlanner(int n, int[][] roads, int[] packages) {
+        if (n <= 0) throw new IllegalArgumentException("At least one location is required");
+        this.n = n;
+        int[] offsets = PackageCollection.buildOffsets(n, roads);
+        int[] targets = PackageCollection.buildTargets(offsets, roads);
+
+        int[] order = new int[n];
+        parent = new int[n];
+        Arrays.fill(parent, -1);
+        if (PackageCollection.dfsOrder(0, offsets, targets, order, parent) != n) {
+            throw new IllegalArgumentException("Roads must connect all locations");
+        }
+
+        // Depths top-down, subtree sizes and heavy children bottom-up
+        depth = new int[n];
+        subtreeSize = new int[n];
+        int[] heavy = new int[n];
+        Arrays.fill(heavy, -1);
+        for (int i = 1; i < n; i++) {
+            depth[order[i]] = depth[parent[order[i]]] + 1;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int node = order[i];
+            subtreeSize[node]++;
+            if (i > 0) {
+                int p = parent[node];
+                subtreeSize[p] += subtreeSize[node];
+                if (heavy[p] == -1 || subtreeSize[node] > subtreeSize[heavy[p]]) heavy[p] = node;
+            }
+        }
+
+        // Number the nodes one heavy path at a time. Light children of deeper path nodes are pushed
+        // last so they are popped first, which keeps every subtree contiguous.
+        head = new int[n];
+        pos = new int[n];
+        nodeAtPos = new int[n];
+        int[] stack = order; // order is no longer needed
+        int top = 0;
+        int next = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int chainHead = stack[--top];
+            for (int node = chainHead; node != -1; node = heavy[node]) {
+                head[node] = chainHead;
+                pos[node] = next;
+                nodeAtPos[next++] = node;
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    int child = targets[i];
+                    if (child != parent[node] && child != heavy[node]) stack[top++] = child;
+                }
+            }
+        }
+        parent[0] = -1;
+
+        fenwick = new int[n + 1];
+        fenwickTopBit = Integer.highestOneBit(n);
+        hasPackage = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (packages[i] == 1) addPackage(i);
+        }
+    }
+
+    /**
+     * Places a package at the given location.
+     *
+     * @param node  Location to update
+     * @return      true if the location did not already hold a package
+     */
+    public boolean addPackage(int node) {
+        if (hasPackage[node]) return false;
+        roadsFromStart += insertionDelta(node, true);
+        roadsFromBestStart += insertionDelta(node, false);
+        hasPackage[node] = true;
+        packageCount++;
+        fenwickAdd(pos[node] + 1, 1);
+        return true;
+    }
+
+    /**
+     * Removes the package from the given location.
+     *
+     * @param node  Location to update
+     * @return      true if the location held a package
+     */
+    public boolean removePackage(int node) {
+        if (!hasPackage[node]) return false;
+        hasPackage[node] = false;
+        packageCount--;
+        fenwickAdd(pos[node] + 1, -1);
+        roadsFromStart -= insertionDelta(node, true);
+        roadsFromBestStart -= insertionDelta(node, false);
+        return true;
+    }
+
+    public boolean hasPackage(int node) {
+        return hasPackage[node];
+    }
+
+    /**
+     * @param node  Root of the subtree (tree rooted at location 0)
+     * @return      Number of packages in the subtree of the given location
+     */
+    public int packagesInSubtree(int node) {
+        return fenwickPrefix(pos[node] + subtreeSize[node]) - fenwickPrefix(pos[node]);
+    }
+
+    /**
+     * @return  Minimum roads to collect every package starting and ending at location 0;
+     *          equal to PackageCollection.minRoadsToCollectPackages for the current packages
+     */
+    public int minRoadsFromStart() {
+        return (int) roadsFromStart;
+    }
+
+    /**
+     * @return  Minimum roads to collect every package when the start location may be chosen freely
+     */
+    public int minRoadsFromBestStart() {
+        return (int) roadsFromBestStart;
+    }
+
+    /**
+     * Change of the cyclic distance sum caused by inserting a node that is not yet a terminal.
+     * Must be called while the node is absent from the Fenwick tree.
+     */
+    private long insertionDelta(int node, boolean includeStart) {
+        if (includeStart && node == 0) return 0; // Location 0 is always a terminal
+        int p = pos[node];
+        int before = fenwickPrefix(p); // Packages at positions < p
+        int prev, following;
+        if (includeStart) {
+            // Location 0 has position 0 and closes the cycle at both ends
+            prev = before > 0 ? nodeAtPos[fenwickFind(before)] : 0;
+            following = before < packageCount ? nodeAtPos[fenwickFind(before + 1)] : 0;
+        } else {
+            if (packageCount == 0) return 0;
+            prev = nodeAtPos[fenwickFind(before > 0 ? before : packageCount)];
+            following = nodeAtPos[fenwickFind(before < packageCount ? before + 1 : 1)];
+        }
+        return distance(prev, node) + distance(node, following) - distance(prev, following);
+    }
+
+    private int distance(int u, int v) {
+        int du = depth[u], dv = depth[v];
+        while (head[u] != head[v]) {
+            if (depth[head[u]] < depth[head[v]]) {
+                v = parent[head[v]];
+            } else {
+                u = parent[head[u]];
+            }
+        }
+        int lcaDepth = Math.min(depth[u], depth[v]);
+        return du + dv - 2 * lcaDepth;
+    }
+
+    private void fenwickAdd(int index, int delta) {
+        for (; index <= n; index += index & -index) fenwick[index] += delta;
+    }
+
+    // Sum over 1-based indices [1, index]
+    private int fenwickPrefix(int index) {
+        int sum = 0;
+        for (; index > 0; index -= index & -index) sum += fenwick[index];
+        return sum;
+    }
+
+    // 0-based position of the k-th package (k >= 1) in DFS order
+    private int fenwickFind(int k) {
+        int index = 0;
+        for (int bit = fenwickTopBit; bit > 0; bit >>= 1) {
+            int nextIndex = index + bit;
+            if (nextIndex <= n && fenwick[nextIndex] < k) {
+                index = nextIndex;
+                k -= fenwick[nextIndex];
+            }
+        }
+        // index is the largest 1-based index whose prefix sum is below k, which is exactly the
+        // 0-based position of the k-th package
+        return index;
+    }
+
+    public static void main(String[] args) {
+        int[] packages = {0, 0, 0, 1, 1, 0, 0, 1};
+        int[][] roads = {{0, 1}, {0, 2}, {1, 3}, {1, 4}, {2, 5}, {5, 6}, {5, 7}};
+        PackageRoutePlanner planner = new PackageRoutePlanner(8, roads, packages);
+        System.out.println("From location 0: " + planner.minRoadsFromStart()
+                + ", best start: " + planner.minRoadsFromBestStart());
+        // Expected Output: From location 0: 12, best start: 12
+
+        planner.removePackage(7);
+        System.out.println("From location 0: " + planner.minRoadsFromStart()
+                + ", best start: " + planner.minRoadsFromBestStart());
+        // Expected Output: From location 0: 6, best start: 4
+
+        planner.addPackage(6);
+        System.out.println("Packages under location 2: " + planner.packagesInSubtree(2));
+        // Expected Output: Packages under location 2: 1
+    }
+}
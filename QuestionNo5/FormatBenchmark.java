@@ -0,0 +1,39 @@
+// Headless benchmark for TopologyFormat: exports a generated topology with millions of links to a
+// temporary file, imports it again in a single pass, and reports file size and throughput.
+// Run with: java -Xmx2g FormatBenchmark [nodeCount] [linksPerNode]
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Random;
+
+public class FormatBenchmark {
+    public static void main(String[] args) throws IOException {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int linksPerNode = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        TopologyGraph graph = RoutingBenchmark.generate(nodeCount, nodeCount * linksPerNode, new Random(3));
+
+        File file = File.createTempFile("topology", ".topo");
+        file.deleteOnExit();
+        long start = System.nanoTime();
+        try (OutputStream out = new FileOutputStream(file)) {
+            TopologyFormat.write(graph, out);
+        }
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        long bytes = Files.size(file.toPath());
+
+        start = System.nanoTime();
+        TopologyGraph loaded;
+        try (InputStream in = new FileInputStream(file)) {
+            loaded = TopologyFormat.read(in, progress -> { });
+        }
+        double readSeconds = (System.nanoTime() - start) / 1e9;
+
+        if (loaded.nodeCount() != graph.nodeCount() || loaded.edgeCount() != graph.edgeCount()) {
+            throw new IllegalStateException("Round trip changed the topology size");
+        }
+        System.out.printf("%,d nodes, %,d links: %.1f MB (%.1f bytes/link incl. nodes)%n",
+                graph.nodeCount(), graph.edgeCount(), bytes / 1e6, bytes / (double) graph.edgeCount());
+        System.out.printf("  export: %.2f s (%.1f M links/s)%n", writeSeconds, graph.edgeCount() / writeSeconds / 1e6);
+        System.out.printf("  import: %.2f s (%.1f M links/s)%n", readSeconds, graph.edgeCount() / readSeconds / 1e6);
+    }
+}
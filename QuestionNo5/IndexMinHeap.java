@@ -0,0 +1,88 @@
+// Indexed binary min-heap over the integers 0..capacity-1 with long priorities.
+// Each index can be in the heap at most once; its position is tracked so the priority
+// can be lowered in O(log n) (decrease-key) instead of pushing duplicate entries.
+// Everything lives in primitive arrays, so no objects are allocated per operation.
+
+import java.util.Arrays;
+
+class IndexMinHeap {
+    private final long[] keys; // Priority of each index
+    private final int[] heap; // Heap slots holding indices
+    private final int[] position; // Slot of each index in the heap, -1 if absent
+    private int size;
+
+    public IndexMinHeap(int capacity) {
+        keys = new long[capacity];
+        heap = new int[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int index) {
+        return position[index] != -1;
+    }
+
+    public long keyOf(int index) {
+        return keys[index];
+    }
+
+    // Inserts the index, or lowers its priority if it is already present with a larger key
+    public void insertOrDecrease(int index, long key) {
+        if (position[index] == -1) {
+            keys[index] = key;
+            heap[size] = index;
+            position[index] = size;
+            siftUp(size++);
+        } else if (key < keys[index]) {
+            keys[index] = key;
+            siftUp(position[index]);
+        }
+    }
+
+    // Removes and returns the index with the smallest key
+    public int poll() {
+        int min = heap[0];
+        position[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int slot) {
+        int index = heap[slot];
+        long key = keys[index];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (keys[parent] <= key) break;
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = index;
+        position[index] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int index = heap[slot];
+        long key = keys[index];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+            if (key <= keys[heap[child]]) break;
+            heap[slot] = heap[child];
+            position[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = index;
+        position[index] = slot;
+    }
+}
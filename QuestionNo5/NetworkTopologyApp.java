@@ -7,50 +7,59 @@
 // displaying the total cost, latency, and optimal connections while allowing users to modify the 
 // topology interactively. This ensures minimum cost, efficient data transmission, and dynamic network 
 // optimization for better planning and management. 
+// MST and shortest path computations run on a SwingWorker against an immutable snapshot of the
+// topology, so the window stays responsive, shows progress, and long jobs can be cancelled.
+// The canvas is drawn by TopologyRenderer, which culls with a grid index and caches static layers;
+// the mouse wheel zooms and dragging pans the view.
+// "Find Path" can also route by bandwidth: the widest (maximum bottleneck) path, or the Pareto
+// frontier of (cost, bandwidth) routes within a cost budget.
+// All graph state and algorithms live in the headless TopologyGraph engine; this window is a view
+// over it. Topologies can be imported and exported in the compact TopologyFormat from the File menu.
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.*;
 import java.util.*;
-
-class Node {
-    int x, y; // Node coordinates
-    String name; // Node name (identifier)
-    String type; // Type of node (Server or Client)
-
-    public Node(String name, String type, int x, int y) {
-        this.name = name;
-        this.type = type;
-        this.x = x;
-        this.y = y;
-    }
-}
-
-class Edge {
-    Node from, to; // Connecting nodes
-    int cost, bandwidth; // Cost of the connection and bandwidth capacity
-
-    public Edge(Node from, Node to, int cost, int bandwidth) {
-        this.from = from;
-        this.to = to;
-        this.cost = cost;
-        this.bandwidth = bandwidth;
-    }
-}
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 public class NetworkTopologyApp extends JFrame {
-    private final ArrayList<Node> nodes = new ArrayList<>(); // List of nodes (servers/clients)
-    private final ArrayList<Edge> edges = new ArrayList<>(); // List of edges (connections)
+    private TopologyGraph graph = new TopologyGraph(); // Nodes (servers/clients) and edges (connections)
     private JLabel statusLabel; // Label to display network cost and latency
-    private java.util.List<Edge> mstEdges = new ArrayList<>(); // Minimum spanning tree edges
-    private java.util.List<Edge> shortestPathEdges = new ArrayList<>(); // Shortest path edges
+    // Edge indices, replaced wholesale by results published from background jobs and never modified
+    private int[] mstEdges = new int[0]; // Minimum spanning tree edges
+    private int[] shortestPathEdges = new int[0]; // Shortest path edges
+    private JProgressBar progressBar; // Progress of the running background job
+    private JButton cancelButton; // Cancels the running background job
+    private SwingWorker<?, ?> runningJob; // Background MST/path job, null when idle
+    private static final String[] ROUTE_MODES = {"Cheapest (cost)", "Widest (bandwidth)", "Cost / bandwidth"};
+    private TopologyRenderer renderer = new TopologyRenderer(graph); // Draws the canvas
 
     public NetworkTopologyApp() {
         setTitle("Network Topology Designer"); // Window title
-        setSize(800, 600); // Window size
+        setSize(1100, 600); // Window size
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(null);
 
+        // File menu for importing and exporting topologies
+        JMenuBar menuBar = new JMenuBar();
+        JMenu fileMenu = new JMenu("File");
+        JMenuItem importItem = new JMenuItem("Import...");
+        JMenuItem exportItem = new JMenuItem("Export...");
+        JMenuItem addEdgesItem = new JMenuItem("Add Edges...");
+        importItem.addActionListener(e -> importTopology());
+        exportItem.addActionListener(e -> exportTopology());
+        addEdgesItem.addActionListener(e -> addEdgesInBulk());
+        fileMenu.add(importItem);
+        fileMenu.add(exportItem);
+        fileMenu.add(addEdgesItem);
+        menuBar.add(fileMenu);
+        setJMenuBar(menuBar);
+
         // UI Buttons for adding nodes, edges, finding MST and shortest path
         JButton addNodeButton = new JButton("Add Node");
         addNodeButton.setBounds(10, 10, 100, 30);
@@ -60,55 +69,77 @@ public class NetworkTopologyApp extends JFrame {
         addEdgeButton.setBounds(120, 10, 100, 30);
         add(addEdgeButton);
 
+        // Routing mode used by "Find Path"
+        JComboBox<String> routeModeBox = new JComboBox<>(ROUTE_MODES);
+        routeModeBox.setBounds(230, 10, 130, 30);
+        add(routeModeBox);
+
         JButton findPathButton = new JButton("Find Path");
-        findPathButton.setBounds(230, 10, 100, 30);
+        findPathButton.setBounds(370, 10, 100, 30);
         add(findPathButton);
 
         JButton findMSTButton = new JButton("Find MST");
-        findMSTButton.setBounds(340, 10, 100, 30);
+        findMSTButton.setBounds(480, 10, 100, 30);
         add(findMSTButton);
 
+        // Cancel button and progress bar for MST/path jobs running in the background
+        cancelButton = new JButton("Cancel");
+        cancelButton.setBounds(590, 10, 90, 30);
+        cancelButton.setEnabled(false);
+        add(cancelButton);
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setBounds(690, 15, 110, 20);
+        progressBar.setStringPainted(true);
+        add(progressBar);
+
         // Status label to display total cost and latency
         statusLabel = new JLabel("Total Cost: 0, Latency: 0");
-        statusLabel.setBounds(460, 10, 300, 30);
+        statusLabel.setBounds(810, 10, 280, 30);
         add(statusLabel);
 
-        // Canvas panel for drawing the network graph
+        // Canvas panel for drawing the network graph through the cached, culled renderer
         JPanel canvas = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                for (Edge e : edges) {
-                    if (shortestPathEdges.contains(e)) {
-                        g.setColor(Color.GREEN); // Shortest path edges in green
-                    } else if (mstEdges.contains(e)) {
-                        g.setColor(Color.RED); // MST edges in red
-                    } else {
-                        g.setColor(Color.BLACK); // Normal edges in black
-                    }
-                    g.drawLine(e.from.x, e.from.y, e.to.x, e.to.y);
-                    int midX = (e.from.x + e.to.x) / 2;
-                    int midY = (e.from.y + e.to.y) / 2;
-                    g.drawString("C: " + e.cost + ", B: " + e.bandwidth, midX, midY);
-                }
-                g.setColor(Color.BLUE);
-                for (Node n : nodes) {
-                    g.fillOval(n.x - 10, n.y - 10, 20, 20);
-                    g.drawString(n.name + " (" + n.type + ")", n.x + 10, n.y + 10);
-                }
+                renderer.paint((Graphics2D) g, getWidth(), getHeight());
+            }
+        };
+        // Mouse wheel zooms around the cursor, dragging pans the view
+        canvas.addMouseWheelListener(e -> {
+            renderer.zoomAt(Math.pow(1.1, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            canvas.repaint();
+        });
+        MouseAdapter panHandler = new MouseAdapter() {
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                last = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                renderer.panBy(e.getX() - last.x, e.getY() - last.y);
+                last = e.getPoint();
+                canvas.repaint();
             }
         };
-        canvas.setBounds(0, 50, 800, 550);
+        canvas.addMouseListener(panHandler);
+        canvas.addMouseMotionListener(panHandler);
+        canvas.setBounds(0, 50, 1100, 550);
         add(canvas);
 
         // Event listener for adding nodes
         addNodeButton.addActionListener(e -> {
             String name = JOptionPane.showInputDialog("Enter node name:");
-            String[] types = {"Server", "Client"};
+            String[] types = {TopologyGraph.SERVER, TopologyGraph.CLIENT};
             String type = (String) JOptionPane.showInputDialog(null, "Select type:", "Node Type",
                     JOptionPane.QUESTION_MESSAGE, null, types, types[0]);
             if (name != null && type != null) {
-                nodes.add(new Node(name, type, new Random().nextInt(750), new Random().nextInt(500)));
+                graph.addNode(name, type, new Random().nextInt(750), new Random().nextInt(500));
+                renderer.topologyChanged();
                 repaint();
             }
         });
@@ -120,11 +151,12 @@ public class NetworkTopologyApp extends JFrame {
             int cost = Integer.parseInt(JOptionPane.showInputDialog("Enter cost:"));
             int bandwidth = Integer.parseInt(JOptionPane.showInputDialog("Enter bandwidth:"));
 
-            Node n1 = findNodeByName(from);
-            Node n2 = findNodeByName(to);
+            int n1 = graph.findNode(from);
+            int n2 = graph.findNode(to);
 
-            if (n1 != null && n2 != null) {
-                edges.add(new Edge(n1, n2, cost, bandwidth));
+            if (n1 != -1 && n2 != -1) {
+                graph.addEdge(n1, n2, cost, bandwidth);
+                renderer.topologyChanged();
                 updateStatus();
                 repaint();
             } else {
@@ -137,63 +169,221 @@ public class NetworkTopologyApp extends JFrame {
             String start = JOptionPane.showInputDialog("Enter start node:");
             String end = JOptionPane.showInputDialog("Enter end node:");
             if (start != null && end != null) {
-                findShortestPath(start, end);
-                repaint();
+                int mode = routeModeBox.getSelectedIndex();
+                if (mode == 0) {
+                    findShortestPath(start, end);
+                } else if (mode == 1) {
+                    findWidestPath(start, end);
+                } else {
+                    String budget = JOptionPane.showInputDialog("Enter maximum cost (empty for no limit):");
+                    if (budget == null) return;
+                    long maxCost;
+                    try {
+                        maxCost = budget.isBlank() ? Long.MAX_VALUE : Long.parseLong(budget.trim());
+                        if (maxCost < 0) throw new NumberFormatException();
+                    } catch (NumberFormatException ex) {
+                        JOptionPane.showMessageDialog(null, "Invalid maximum cost: " + budget);
+                        return;
+                    }
+                    findParetoRoutes(start, end, maxCost);
+                }
             }
         });
 
         // Event listener for finding the minimum spanning tree (MST)
-        findMSTButton.addActionListener(e -> {
-            findMinimumSpanningTree();
-            repaint();
+        findMSTButton.addActionListener(e -> findMinimumSpanningTree());
+
+        cancelButton.addActionListener(e -> {
+            if (runningJob != null) runningJob.cancel(true);
         });
     }
 
-    // Finds a node by its name
-    private Node findNodeByName(String name) {
-        for (Node n : nodes) {
-            if (n.name.equals(name)) return n;
-        }
-        return null;
+    // Runs a computation on a background thread, cancelling any job that is still running.
+    // The computation reports progress through its IntConsumer; onDone runs on the event thread.
+    private <T> void runInBackground(Function<IntConsumer, T> computation, Consumer<T> onDone) {
+        if (runningJob != null) runningJob.cancel(true);
+        SwingWorker<T, Void> job = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() {
+                return computation.apply(this::setProgress);
+            }
+
+            @Override
+            protected void done() {
+                if (runningJob != this) return; // Superseded by a newer job
+                runningJob = null;
+                cancelButton.setEnabled(false);
+                if (isCancelled()) {
+                    progressBar.setValue(0);
+                    return;
+                }
+                try {
+                    progressBar.setValue(100);
+                    onDone.accept(get());
+                } catch (InterruptedException | CancellationException ignored) {
+                    // Cancelled between the check above and get()
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(null, "Computation failed: " + ex.getCause());
+                }
+                repaint();
+            }
+        };
+        job.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) progressBar.setValue((Integer) evt.getNewValue());
+        });
+        runningJob = job;
+        progressBar.setValue(0);
+        cancelButton.setEnabled(true);
+        job.execute();
     }
 
-    // Prim's Algorithm for Minimum Spanning Tree
-    private void findMinimumSpanningTree() {
-        mstEdges.clear();
-        if (nodes.isEmpty() || edges.isEmpty()) return;
+    // Replaces the current topology with one read from a file, loading it in the background
+    private void importTopology() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        runInBackground(progress -> {
+            try (InputStream in = new FileInputStream(file)) {
+                return TopologyFormat.read(in, progress);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, loaded -> {
+            graph = loaded;
+            renderer = new TopologyRenderer(graph);
+            mstEdges = new int[0];
+            shortestPathEdges = new int[0];
+            updateStatus();
+        });
+    }
 
-        PriorityQueue<Edge> pq = new PriorityQueue<>(Comparator.comparingInt(e -> e.cost));
-        Set<Node> visited = new HashSet<>();
-        visited.add(nodes.get(0));
+    // Writes the current topology to a file
+    private void exportTopology() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        try (OutputStream out = new FileOutputStream(chooser.getSelectedFile())) {
+            TopologyFormat.write(graph, out);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(null, "Export failed: " + ex.getMessage());
+        }
+    }
 
-        while (visited.size() < nodes.size()) {
-            for (Edge edge : edges) {
-                if (visited.contains(edge.from) ^ visited.contains(edge.to)) {
-                    pq.add(edge);
-                }
+    // Adds many edges at once from "from,to,cost,bandwidth" lines. The batch goes to the graph in one
+    // call, and the canvas and status are refreshed once at the end instead of once per edge.
+    private void addEdgesInBulk() {
+        JTextArea input = new JTextArea(15, 40);
+        if (JOptionPane.showConfirmDialog(null, new JScrollPane(input), "Edges (from,to,cost,bandwidth per line)",
+                JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+        String[] lines = input.getText().split("\\R");
+        int[] from = new int[lines.length], to = new int[lines.length];
+        int[] cost = new int[lines.length], bandwidth = new int[lines.length];
+        int count = 0;
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            String[] fields = line.split(",");
+            try {
+                if (fields.length != 4) throw new NumberFormatException();
+                from[count] = graph.findNode(fields[0].trim());
+                to[count] = graph.findNode(fields[1].trim());
+                cost[count] = Integer.parseInt(fields[2].trim());
+                bandwidth[count] = Integer.parseInt(fields[3].trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(null, "Invalid line: " + line);
+                return;
+            }
+            if (from[count] == -1 || to[count] == -1) {
+                JOptionPane.showMessageDialog(null, "Invalid nodes: " + line);
+                return;
             }
-            if (pq.isEmpty()) break;
-            Edge minEdge = pq.poll();
-            mstEdges.add(minEdge);
-            visited.add(minEdge.from);
-            visited.add(minEdge.to);
+            count++;
         }
+        graph.addEdges(Arrays.copyOf(from, count), Arrays.copyOf(to, count),
+                Arrays.copyOf(cost, count), Arrays.copyOf(bandwidth, count));
+        renderer.topologyChanged();
         updateStatus();
+        repaint();
+    }
+
+    // Prim's Algorithm for Minimum Spanning Tree, computed in the background.
+    // A disconnected network yields a minimum spanning forest and the UI reports its tree count.
+    private void findMinimumSpanningTree() {
+        TopologySnapshot snapshot = graph.snapshot();
+        runInBackground(snapshot::minimumSpanningForest, forest -> {
+            mstEdges = forest.edgeIndices;
+            renderer.setHighlights(mstEdges, shortestPathEdges);
+            updateStatus();
+            if (forest.components > 1) {
+                JOptionPane.showMessageDialog(null, "Network is disconnected: showing a minimum spanning forest of "
+                        + forest.components + " trees.");
+            }
+        });
     }
 
-    // Dijkstra’s Algorithm for Shortest Path
+    // Dijkstra’s Algorithm for Shortest Path, computed in the background
     private void findShortestPath(String start, String end) {
-        shortestPathEdges.clear();
-        Node source = findNodeByName(start);
-        Node destination = findNodeByName(end);
-        if (source == null || destination == null) return;
+        int source = graph.findNode(start);
+        int destination = graph.findNode(end);
+        if (source == -1 || destination == -1) {
+            JOptionPane.showMessageDialog(null, "Invalid nodes!");
+            return;
+        }
+        TopologySnapshot snapshot = graph.snapshot();
+        runInBackground(progress -> snapshot.shortestPath(source, destination, progress), this::showPath);
+    }
+
+    // Widest path: the route whose narrowest link has the most bandwidth, computed in the background
+    private void findWidestPath(String start, String end) {
+        int source = graph.findNode(start);
+        int destination = graph.findNode(end);
+        if (source == -1 || destination == -1) {
+            JOptionPane.showMessageDialog(null, "Invalid nodes!");
+            return;
+        }
+        TopologySnapshot snapshot = graph.snapshot();
+        runInBackground(progress -> snapshot.widestPath(source, destination, progress), this::showPath);
+    }
+
+    // Cost-constrained routing: computes every Pareto-optimal (cost, bandwidth) route within the
+    // budget in the background, then lets the user pick which one to highlight
+    private void findParetoRoutes(String start, String end, long maxCost) {
+        int source = graph.findNode(start);
+        int destination = graph.findNode(end);
+        if (source == -1 || destination == -1) {
+            JOptionPane.showMessageDialog(null, "Invalid nodes!");
+            return;
+        }
+        TopologySnapshot snapshot = graph.snapshot();
+        runInBackground(progress -> snapshot.paretoRoutes(source, destination, maxCost, progress), routes -> {
+            if (routes.length == 0) {
+                showPath(null);
+                return;
+            }
+            String[] choices = new String[routes.length];
+            for (int i = 0; i < routes.length; i++) {
+                choices[i] = "Cost: " + routes[i].cost + ", Bandwidth: " + routes[i].bottleneck
+                        + " (" + routes[i].edgeIndices.length + " links)";
+            }
+            Object choice = JOptionPane.showInputDialog(null, "Pareto-optimal routes:", "Cost / Bandwidth",
+                    JOptionPane.QUESTION_MESSAGE, null, choices, choices[choices.length - 1]);
+            int selected = Arrays.asList(choices).indexOf(choice);
+            if (selected >= 0) showPath(routes[selected].edgeIndices);
+        });
+    }
+
+    // Highlights a route returned by a background job, or reports that there is none
+    private void showPath(int[] path) {
+        if (path == null) {
+            shortestPathEdges = new int[0];
+            JOptionPane.showMessageDialog(null, "No path between the given nodes!");
+        } else {
+            shortestPathEdges = path;
+        }
+        renderer.setHighlights(mstEdges, shortestPathEdges);
     }
 
-    // Updates cost and latency in the GUI
+    // Updates cost and latency in the GUI from the graph's running totals
     private void updateStatus() {
-        int totalCost = edges.stream().mapToInt(e -> e.cost).sum();
-        int totalLatency = edges.stream().mapToInt(e -> e.bandwidth).sum();
-        statusLabel.setText("Total Cost: " + totalCost + ", Latency: " + totalLatency);
+        statusLabel.setText("Total Cost: " + graph.totalCost() + ", Latency: " + graph.totalBandwidth());
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,112 @@
+// Headless frame-time benchmark for the network canvas.
+// Builds geometric topologies with 10^4 and 10^5 edges (nodes on a jittered grid, each edge
+// linking nearby nodes), highlights 10% of the edges as MST plus a short path, and times:
+// - naive:  the previous paintComponent loop (List.contains per edge, every label, every frame)
+// - cold:   TopologyRenderer with all layers invalidated (first frame after a change)
+// - warm:   TopologyRenderer repainting from its cached layers
+// - zoomed: TopologyRenderer after zooming in 8x, where grid culling skips most of the graph
+// Run with: java -Djava.awt.headless=true RenderBenchmark
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+
+public class RenderBenchmark {
+    private static final int WIDTH = 1000, HEIGHT = 550;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        for (int edgeCount : new int[]{10_000, 100_000}) {
+            run(edgeCount);
+        }
+    }
+
+    private static void run(int edgeCount) {
+        Random random = new Random(7);
+        int nodeCount = edgeCount / 4;
+        int side = (int) Math.ceil(Math.sqrt(nodeCount));
+        int spacing = 40;
+        TopologyGraph graph = new TopologyGraph();
+        for (int i = 0; i < nodeCount; i++) {
+            graph.addNode("N" + i, i % 10 == 0 ? TopologyGraph.SERVER : TopologyGraph.CLIENT,
+                    (i % side) * spacing + random.nextInt(spacing / 2), (i / side) * spacing + random.nextInt(spacing / 2));
+        }
+        for (int i = 0; i < edgeCount; i++) {
+            int from = random.nextInt(nodeCount);
+            int to = Math.floorMod(from + random.nextInt(7) - 3 + (random.nextInt(7) - 3) * side, nodeCount);
+            graph.addEdge(from, to, 1 + random.nextInt(100), 1 + random.nextInt(1000));
+        }
+        int[] mst = new int[(edgeCount + 9) / 10];
+        for (int i = 0; i < mst.length; i++) mst[i] = i * 10;
+        int[] path = new int[50];
+        for (int i = 0; i < path.length; i++) path[i] = 5 + i * 7;
+
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        System.out.printf("%,d edges, %,d nodes%n", edgeCount, nodeCount);
+
+        if ((long) edgeCount * mst.length <= 1_000_000_000L) {
+            report("naive ", 3, () -> paintNaive(frame, graph, mst, path));
+        } else {
+            System.out.println("  naive : skipped (O(E * |MST|) per frame)");
+        }
+
+        TopologyRenderer renderer = new TopologyRenderer(graph);
+        renderer.setHighlights(mst, path);
+        report("cold  ", 10, () -> {
+            renderer.topologyChanged();
+            paint(frame, renderer);
+        });
+        report("warm  ", 200, () -> paint(frame, renderer));
+        renderer.zoomAt(8, WIDTH / 2, HEIGHT / 2);
+        report("zoomed", 50, () -> {
+            renderer.panBy(1, 0); // Invalidate the layers without rebuilding the index
+            paint(frame, renderer);
+        });
+    }
+
+    private static void paint(BufferedImage frame, TopologyRenderer renderer) {
+        Graphics2D g = frame.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        renderer.paint(g, WIDTH, HEIGHT);
+        g.dispose();
+    }
+
+    // The paintComponent body before the rendering layer was introduced, with the MST and path
+    // kept as Lists (edge indices boxed) and checked with List.contains for every edge
+    private static void paintNaive(BufferedImage frame, TopologyGraph graph, int[] mst, int[] path) {
+        java.util.List<Integer> mstEdges = Arrays.stream(mst).boxed().toList();
+        java.util.List<Integer> shortestPathEdges = Arrays.stream(path).boxed().toList();
+        Graphics2D g = frame.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (shortestPathEdges.contains(e)) {
+                g.setColor(Color.GREEN);
+            } else if (mstEdges.contains(e)) {
+                g.setColor(Color.RED);
+            } else {
+                g.setColor(Color.BLACK);
+            }
+            int from = graph.edgeFrom(e), to = graph.edgeTo(e);
+            g.drawLine(graph.nodeX(from), graph.nodeY(from), graph.nodeX(to), graph.nodeY(to));
+            g.drawString("C: " + graph.edgeCost(e) + ", B: " + graph.edgeBandwidth(e),
+                    (graph.nodeX(from) + graph.nodeX(to)) / 2, (graph.nodeY(from) + graph.nodeY(to)) / 2);
+        }
+        g.setColor(Color.BLUE);
+        for (int n = 0; n < graph.nodeCount(); n++) {
+            g.fillOval(graph.nodeX(n) - 10, graph.nodeY(n) - 10, 20, 20);
+            g.drawString(graph.nodeName(n) + " (" + graph.nodeType(n) + ")", graph.nodeX(n) + 10, graph.nodeY(n) + 10);
+        }
+        g.dispose();
+    }
+
+    private static void report(String label, int frames, Runnable paint) {
+        paint.run(); // Warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) paint.run();
+        double millis = (System.nanoTime() - start) / 1e6 / frames;
+        System.out.printf("  %s: %8.3f ms/frame%n", label, millis);
+    }
+}
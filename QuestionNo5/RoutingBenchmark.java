@@ -0,0 +1,86 @@
+// Headless benchmark for the routing engines of TopologyGraph.
+// Generates random connected topologies with 10^4 and 10^5 nodes and 4 links per node on average.
+// Link costs are uniform in 1..100 and bandwidths come from eight capacity tiers, as in real
+// networks; the tier count bounds the size of the cost/bandwidth Pareto frontier. For random
+// node pairs it times:
+// - cheapest: Dijkstra on cost
+// - widest:   maximum-bottleneck Dijkstra on bandwidth
+// - pareto:   cost/bandwidth frontier with a budget of twice the cheapest cost
+// Run with: java RoutingBenchmark
+
+import java.util.Random;
+
+public class RoutingBenchmark {
+    private static final int[] BANDWIDTH_TIERS = {10, 50, 100, 500, 1000, 2500, 10000, 40000};
+    private static final int QUERIES = 20;
+
+    public static void main(String[] args) {
+        for (int nodeCount : new int[]{10_000, 100_000}) {
+            run(nodeCount, nodeCount * 4);
+        }
+    }
+
+    // Builds a random topology: a random spanning tree keeps it connected, the rest are random links
+    static TopologyGraph generate(int nodeCount, int edgeCount, Random random) {
+        TopologyGraph graph = new TopologyGraph();
+        graph.ensureNodeCapacity(nodeCount);
+        graph.ensureEdgeCapacity(edgeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            graph.addNode("N" + i, i % 10 == 0 ? TopologyGraph.SERVER : TopologyGraph.CLIENT,
+                    random.nextInt(10_000), random.nextInt(10_000));
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            int from, to;
+            if (e < nodeCount - 1) {
+                from = e + 1;
+                to = random.nextInt(e + 1);
+            } else {
+                from = random.nextInt(nodeCount);
+                to = random.nextInt(nodeCount);
+            }
+            graph.addEdge(from, to, 1 + random.nextInt(100), BANDWIDTH_TIERS[random.nextInt(BANDWIDTH_TIERS.length)]);
+        }
+        return graph;
+    }
+
+    private static void run(int nodeCount, int edgeCount) {
+        Random random = new Random(11);
+        TopologyGraph topology = generate(nodeCount, edgeCount, random);
+        int[] sources = new int[QUERIES], targets = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = random.nextInt(nodeCount);
+            targets[i] = random.nextInt(nodeCount);
+        }
+        long[] budgets = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long cheapest = 0;
+            for (int e : topology.shortestPath(sources[i], targets[i])) cheapest += topology.edgeCost(e);
+            budgets[i] = cheapest * 2;
+        }
+
+        System.out.printf("%,d nodes, %,d links, %d queries%n", nodeCount, edgeCount, QUERIES);
+        for (int round = 0; round < 2; round++) { // First round warms up the JIT
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) topology.shortestPath(sources[i], targets[i]);
+            long cheapest = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) topology.widestPath(sources[i], targets[i]);
+            long widest = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int frontierSize = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                frontierSize += topology.paretoRoutes(sources[i], targets[i], budgets[i]).length;
+            }
+            long pareto = System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.printf("  cheapest: %8.2f ms/query%n", cheapest / 1e6 / QUERIES);
+                System.out.printf("  widest  : %8.2f ms/query%n", widest / 1e6 / QUERIES);
+                System.out.printf("  pareto  : %8.2f ms/query (%.1f routes on the frontier)%n",
+                        pareto / 1e6 / QUERIES, frontierSize / (double) QUERIES);
+            }
+        }
+    }
+}
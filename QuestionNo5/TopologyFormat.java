@@ -0,0 +1,223 @@
+// Compact binary import/export format for TopologyGraph, read and written in a single pass.
+//
+// Layout (all integers are LEB128 varints; "signed" ones are zigzag-encoded first):
+//   magic "TOPO" (4 bytes), version (1 byte)
+//   nodeCount, edgeCount
+//   nodeCount node records:  nameLength, name (UTF-8), type, signed x, signed y
+//                            type is 0 = Server, 1 = Client, 2 = other followed by a length-prefixed name
+//   edgeCount edge records:  signed (from - previous from), signed (to - from), signed cost, signed bandwidth
+//
+// The counts in the header let the reader size the graph's arrays up front, but only up to
+// MAX_RESERVED records each; beyond that the arrays grow as records arrive, so a corrupt header makes
+// the reader fail with an IOException at the end of the data rather than allocate billions of entries.
+// Reading stops with an InterruptedIOException when the thread is interrupted (a cancelled import).
+// Edge endpoints are stored as deltas, so topologies whose edges are listed near their endpoints (as
+// generated or imported ones usually are) take a few bytes per link. Both directions go through a
+// fixed 64 KB buffer with hand-written varint coding, so millions of links load without per-record
+// stream calls.
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+final class TopologyFormat {
+    private static final byte[] MAGIC = {'T', 'O', 'P', 'O'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int TYPE_SERVER = 0, TYPE_CLIENT = 1, TYPE_OTHER = 2;
+    private static final int MAX_RESERVED = 1 << 20; // Nodes or edges reserved before any are read
+
+    private TopologyFormat() {
+    }
+
+    static void write(TopologyGraph graph, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out);
+        encoder.writeBytes(MAGIC, MAGIC.length);
+        encoder.writeVarint(VERSION);
+        int nodeCount = graph.nodeCount(), edgeCount = graph.edgeCount();
+        encoder.writeVarint(nodeCount);
+        encoder.writeVarint(graph.liveEdgeCount()); // Removed edges are not written
+        for (int i = 0; i < nodeCount; i++) {
+            encoder.writeString(graph.nodeName(i));
+            String type = graph.nodeType(i);
+            if (TopologyGraph.SERVER.equals(type)) {
+                encoder.writeVarint(TYPE_SERVER);
+            } else if (TopologyGraph.CLIENT.equals(type)) {
+                encoder.writeVarint(TYPE_CLIENT);
+            } else {
+                encoder.writeVarint(TYPE_OTHER);
+                encoder.writeString(type);
+            }
+            encoder.writeSigned(graph.nodeX(i));
+            encoder.writeSigned(graph.nodeY(i));
+        }
+        int previousFrom = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (graph.isEdgeRemoved(e)) continue;
+            int from = graph.edgeFrom(e);
+            encoder.writeSigned(from - previousFrom);
+            encoder.writeSigned(graph.edgeTo(e) - from);
+            encoder.writeSigned(graph.edgeCost(e));
+            encoder.writeSigned(graph.edgeBandwidth(e));
+            previousFrom = from;
+        }
+        encoder.flush();
+    }
+
+    // Reads a topology; progress (0-100) is reported as records are read. The stream is not closed.
+    static TopologyGraph read(InputStream in, IntConsumer progress) throws IOException {
+        Decoder decoder = new Decoder(in);
+        for (byte b : MAGIC) {
+            if (decoder.readByte() != b) throw new IOException("Not a topology file");
+        }
+        int version = decoder.readVarint();
+        if (version != VERSION) throw new IOException("Unsupported topology file version " + version);
+        int nodeCount = decoder.readVarint();
+        int edgeCount = decoder.readVarint();
+        if (nodeCount < 0 || edgeCount < 0) throw new IOException("Corrupt topology file header");
+        long total = Math.max(1L, (long) nodeCount + edgeCount);
+
+        TopologyGraph graph = new TopologyGraph();
+        graph.ensureNodeCapacity(Math.min(nodeCount, MAX_RESERVED));
+        graph.ensureEdgeCapacity(Math.min(edgeCount, MAX_RESERVED));
+        for (int i = 0; i < nodeCount; i++) {
+            String name = decoder.readString();
+            int typeCode = decoder.readVarint();
+            String type = typeCode == TYPE_SERVER ? TopologyGraph.SERVER
+                    : typeCode == TYPE_CLIENT ? TopologyGraph.CLIENT : decoder.readString();
+            graph.addNode(name, type, decoder.readSigned(), decoder.readSigned());
+            if ((i & 0xFFFF) == 0) checkpoint(i, total, progress);
+        }
+        int from = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            from += decoder.readSigned();
+            int to = from + decoder.readSigned();
+            if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+                throw new IOException("Edge " + e + " refers to an unknown node");
+            }
+            graph.addEdge(from, to, decoder.readSigned(), decoder.readSigned());
+            if ((e & 0xFFFF) == 0) checkpoint(nodeCount + (long) e, total, progress);
+        }
+        progress.accept(100);
+        return graph;
+    }
+
+    // Stops the read if the thread was interrupted, otherwise reports progress
+    private static void checkpoint(long done, long total, IntConsumer progress) throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Topology read cancelled");
+        progress.accept((int) (done * 100 / total));
+    }
+
+    private static final class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeVarint(int value) throws IOException {
+            if (position > BUFFER_SIZE - 5) drain();
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeSigned(int value) throws IOException {
+            writeVarint((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            writeBytes(bytes, bytes.length);
+        }
+
+        void writeBytes(byte[] bytes, int length) throws IOException {
+            if (length > BUFFER_SIZE - position) {
+                drain();
+                if (length > BUFFER_SIZE) {
+                    out.write(bytes, 0, length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+    }
+
+    private static final class Decoder {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position, limit;
+
+        Decoder(InputStream in) {
+            this.in = in;
+        }
+
+        byte readByte() throws IOException {
+            if (position == limit) fill();
+            return buffer[position++];
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        int readSigned() throws IOException {
+            int raw = readVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() throws IOException {
+            int length = readVarint();
+            if (length < 0) throw new IOException("Corrupt string length");
+            if (length <= limit - position) {
+                String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return value;
+            }
+            byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)]; // Grown as the bytes arrive
+            for (int copied = 0; copied < length; ) {
+                if (position == limit) fill();
+                if (copied == bytes.length) bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+                int chunk = Math.min(bytes.length - copied, limit - position);
+                System.arraycopy(buffer, position, bytes, copied, chunk);
+                position += chunk;
+                copied += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void fill() throws IOException {
+            int read = in.read(buffer, 0, BUFFER_SIZE);
+            if (read <= 0) throw new EOFException("Truncated topology file");
+            position = 0;
+            limit = read;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+// Headless network topology engine.
+// Nodes and edges are identified by their int index (assigned in insertion order) and stored in
+// parallel primitive arrays, with a forward-star adjacency for the routing algorithms: every edge e
+// owns two slots, 2e (from -> to) and 2e + 1 (to -> from); adjacencyHead[node] is the first slot
+// leaving the node and nextSlot[slot] chains the rest.
+//
+// A name index and running totals of edge cost and bandwidth are maintained on every insert and
+// delete, so lookups by name and status queries are O(1) instead of scans. Deleted edges keep their
+// index (so indices held elsewhere stay valid) but are unlinked from the adjacency and skipped.
+//
+// The graph is not thread-safe. Background jobs take a snapshot(), an immutable copy, while the
+// direct query methods (shortestPath, minimumSpanningForest, ...) run on a view that shares the
+// arrays and must be used before the graph is modified again.
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+final class TopologyGraph {
+    static final String SERVER = "Server";
+    static final String CLIENT = "Client";
+
+    private int nodeCount;
+    private String[] nodeName = new String[16];
+    private String[] nodeType = new String[16];
+    private int[] nodeX = new int[16];
+    private int[] nodeY = new int[16];
+    private int[] adjacencyHead = new int[16];
+    private final HashMap<String, Integer> nodeByName = new HashMap<>(); // First node with each name
+
+    private int edgeCount;
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private int[] edgeCost = new int[16];
+    private int[] edgeBandwidth = new int[16];
+    private int[] nextSlot = new int[32];
+    private boolean[] edgeRemoved = new boolean[16];
+
+    // Running aggregates over the edges that have not been removed
+    private int liveEdgeCount;
+    private long totalCost;
+    private long totalBandwidth;
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    // Number of edge indices handed out, including removed edges
+    int edgeCount() {
+        return edgeCount;
+    }
+
+    int liveEdgeCount() {
+        return liveEdgeCount;
+    }
+
+    long totalCost() {
+        return totalCost;
+    }
+
+    long totalBandwidth() {
+        return totalBandwidth;
+    }
+
+    // Adds a node and returns its index
+    int addNode(String name, String type, int x, int y) {
+        ensureNodeCapacity(nodeCount + 1);
+        int node = nodeCount++;
+        nodeName[node] = name;
+        nodeType[node] = type;
+        nodeX[node] = x;
+        nodeY[node] = y;
+        adjacencyHead[node] = -1;
+        nodeByName.putIfAbsent(name, node);
+        return node;
+    }
+
+    // Adds an undirected edge between two existing nodes and returns its index
+    int addEdge(int from, int to, int cost, int bandwidth) {
+        if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+            throw new IllegalArgumentException("Unknown node index: " + (from < 0 || from >= nodeCount ? from : to));
+        }
+        ensureEdgeCapacity(edgeCount + 1);
+        int edge = edgeCount++;
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+        edgeCost[edge] = cost;
+        edgeBandwidth[edge] = bandwidth;
+        int slot = 2 * edge;
+        nextSlot[slot] = adjacencyHead[from];
+        adjacencyHead[from] = slot;
+        nextSlot[slot + 1] = adjacencyHead[to];
+        adjacencyHead[to] = slot + 1;
+        liveEdgeCount++;
+        totalCost += cost;
+        totalBandwidth += bandwidth;
+        return edge;
+    }
+
+    // Adds a batch of edges (parallel arrays of equal length) and returns the index of the first one.
+    // Storage grows once for the whole batch; callers refresh views once afterwards.
+    int addEdges(int[] from, int[] to, int[] cost, int[] bandwidth) {
+        for (int i = 0; i < from.length; i++) { // Validate first so a bad batch adds nothing
+            if (from[i] < 0 || from[i] >= nodeCount || to[i] < 0 || to[i] >= nodeCount) {
+                throw new IllegalArgumentException("Unknown node index in edge " + i);
+            }
+        }
+        ensureEdgeCapacity(edgeCount + from.length);
+        int first = edgeCount;
+        for (int i = 0; i < from.length; i++) {
+            addEdge(from[i], to[i], cost[i], bandwidth[i]);
+        }
+        return first;
+    }
+
+    // Removes an edge; its index is not reused. Returns false if it was already removed.
+    boolean removeEdge(int edge) {
+        if (edge < 0 || edge >= edgeCount) throw new IllegalArgumentException("Unknown edge index: " + edge);
+        if (edgeRemoved[edge]) return false;
+        edgeRemoved[edge] = true;
+        unlink(edgeFrom[edge], 2 * edge);
+        unlink(edgeTo[edge], 2 * edge + 1);
+        liveEdgeCount--;
+        totalCost -= edgeCost[edge];
+        totalBandwidth -= edgeBandwidth[edge];
+        return true;
+    }
+
+    // Removes a slot from its node's adjacency chain, O(degree)
+    private void unlink(int node, int slot) {
+        if (adjacencyHead[node] == slot) {
+            adjacencyHead[node] = nextSlot[slot];
+            return;
+        }
+        for (int s = adjacencyHead[node]; s != -1; s = nextSlot[s]) {
+            if (nextSlot[s] == slot) {
+                nextSlot[s] = nextSlot[slot];
+                return;
+            }
+        }
+    }
+
+    boolean isEdgeRemoved(int edge) {
+        return edgeRemoved[edge];
+    }
+
+    // Grows node storage so that at least the given number of nodes fit (used by bulk loading)
+    void ensureNodeCapacity(int capacity) {
+        if (capacity <= nodeName.length) return;
+        int newCapacity = Math.max(capacity, nodeName.length * 2);
+        nodeName = Arrays.copyOf(nodeName, newCapacity);
+        nodeType = Arrays.copyOf(nodeType, newCapacity);
+        nodeX = Arrays.copyOf(nodeX, newCapacity);
+        nodeY = Arrays.copyOf(nodeY, newCapacity);
+        adjacencyHead = Arrays.copyOf(adjacencyHead, newCapacity);
+    }
+
+    // Grows edge storage so that at least the given number of edges fit (used by bulk loading)
+    void ensureEdgeCapacity(int capacity) {
+        if (capacity <= edgeFrom.length) return;
+        int newCapacity = Math.max(capacity, edgeFrom.length * 2);
+        edgeFrom = Arrays.copyOf(edgeFrom, newCapacity);
+        edgeTo = Arrays.copyOf(edgeTo, newCapacity);
+        edgeCost = Arrays.copyOf(edgeCost, newCapacity);
+        edgeBandwidth = Arrays.copyOf(edgeBandwidth, newCapacity);
+        edgeRemoved = Arrays.copyOf(edgeRemoved, newCapacity);
+        nextSlot = Arrays.copyOf(nextSlot, 2 * newCapacity);
+    }
+
+    // Finds a node by its name, -1 if there is none
+    int findNode(String name) {
+        Integer node = nodeByName.get(name);
+        return node == null ? -1 : node;
+    }
+
+    String nodeName(int node) {
+        return nodeName[node];
+    }
+
+    String nodeType(int node) {
+        return nodeType[node];
+    }
+
+    int nodeX(int node) {
+        return nodeX[node];
+    }
+
+    int nodeY(int node) {
+        return nodeY[node];
+    }
+
+    int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    int edgeCost(int edge) {
+        return edgeCost[edge];
+    }
+
+    int edgeBandwidth(int edge) {
+        return edgeBandwidth[edge];
+    }
+
+    // Immutable copy of the current topology, safe to hand to another thread
+    TopologySnapshot snapshot() {
+        return new TopologySnapshot(nodeCount, edgeCount,
+                Arrays.copyOf(edgeFrom, edgeCount), Arrays.copyOf(edgeTo, edgeCount),
+                Arrays.copyOf(edgeCost, edgeCount), Arrays.copyOf(edgeBandwidth, edgeCount),
+                Arrays.copyOf(adjacencyHead, nodeCount), Arrays.copyOf(nextSlot, 2 * edgeCount));
+    }
+
+    // Read-only view sharing the graph's arrays; valid until the graph is next modified
+    private TopologySnapshot view() {
+        return new TopologySnapshot(nodeCount, edgeCount, edgeFrom, edgeTo, edgeCost, edgeBandwidth,
+                adjacencyHead, nextSlot);
+    }
+
+    // Cheapest route by cost as edge indices, or null if the target cannot be reached
+    int[] shortestPath(int source, int target) {
+        return view().shortestPath(source, target, progress -> { });
+    }
+
+    // Route maximizing the bottleneck bandwidth as edge indices, or null if the target cannot be reached
+    int[] widestPath(int source, int target) {
+        return view().widestPath(source, target, progress -> { });
+    }
+
+    // Pareto frontier of (cost, bandwidth) routes with cost at most maxCost, cheapest first
+    TopologySnapshot.Route[] paretoRoutes(int source, int target, long maxCost) {
+        return view().paretoRoutes(source, target, maxCost, progress -> { });
+    }
+
+    // Minimum spanning tree, or forest when the network is disconnected
+    TopologySnapshot.SpanningForest minimumSpanningForest() {
+        return view().minimumSpanningForest(progress -> { });
+    }
+}
@@ -0,0 +1,325 @@
+// Rendering layer for the network canvas.
+// - Highlight state (MST / shortest path) is kept in a flag array indexed by edge index, so
+//   choosing an edge's color is O(1) instead of List.contains on every edge.
+// - A uniform grid over the node bounding box indexes nodes and edges (edges by the cells their
+//   bounding box covers; very long edges go to a short side list), so a frame only touches what
+//   intersects the visible area.
+// - Edges, highlights and nodes are drawn into three cached BufferedImage layers. A repaint only
+//   blits them; a layer is redrawn when the topology, the highlights or the view changes.
+// - Labels are only drawn when zoomed in far enough and when few enough items are visible.
+//
+// The renderer never touches Swing components, so it can draw into any Graphics2D, including an
+// off-screen image in a headless benchmark.
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+final class TopologyRenderer {
+    static final double LABEL_ZOOM_THRESHOLD = 0.75; // Labels only at or above this zoom
+    static final int MAX_LABELED_ITEMS = 2000; // Above this many visible items labels are skipped
+    private static final int NODE_RADIUS = 10;
+    private static final int LONG_EDGE_CELLS = 64; // Edges covering more cells skip the grid
+    private static final byte NONE = 0, MST = 1, PATH = 2;
+
+    private final TopologyGraph graph;
+
+    // View transform: screen = (world - view) * scale
+    private double scale = 1.0;
+    private double viewX, viewY;
+
+    // Highlight flags per edge index, plus the edge arrays that set them (to clear cheaply)
+    private byte[] highlight = new byte[0];
+    private int[] highlightedMst = new int[0];
+    private int[] highlightedPath = new int[0];
+
+    // Grid index in CSR form: items of cell c are cellItems[cellStart[c] .. cellStart[c + 1] - 1]
+    private boolean indexDirty = true;
+    private int gridMinX, gridMinY, cellSize, columns, rows;
+    private int[] edgeCellStart, edgeCellItems, nodeCellStart, nodeCellItems;
+    private int[] longEdges = new int[0];
+    private int[] seenStamp = new int[0]; // Per-edge frame stamp to drop duplicates across cells
+    private int stamp;
+
+    // Cached layers, sized to the viewport
+    private BufferedImage edgeLayer, highlightLayer, nodeLayer;
+    private boolean edgeLayerDirty = true, highlightLayerDirty = true, nodeLayerDirty = true;
+
+    TopologyRenderer(TopologyGraph graph) {
+        this.graph = graph;
+    }
+
+    // Must be called after nodes or edges are added or removed
+    void topologyChanged() {
+        indexDirty = true;
+        invalidateLayers();
+    }
+
+    // Arguments are edge indices; the arrays are kept and must not be modified afterwards
+    void setHighlights(int[] mst, int[] path) {
+        int edgeCount = graph.edgeCount();
+        if (highlight.length < edgeCount) highlight = Arrays.copyOf(highlight, Math.max(16, edgeCount * 2));
+        for (int e : highlightedMst) highlight[e] = NONE;
+        for (int e : highlightedPath) highlight[e] = NONE;
+        for (int e : mst) highlight[e] = MST;
+        for (int e : path) highlight[e] = PATH; // Path color wins over MST color
+        highlightedMst = mst;
+        highlightedPath = path;
+        highlightLayerDirty = true;
+    }
+
+    // Zooms by the given factor keeping the world point under (screenX, screenY) fixed
+    void zoomAt(double factor, int screenX, int screenY) {
+        double worldX = viewX + screenX / scale;
+        double worldY = viewY + screenY / scale;
+        scale = Math.max(0.01, Math.min(50, scale * factor));
+        viewX = worldX - screenX / scale;
+        viewY = worldY - screenY / scale;
+        invalidateLayers();
+    }
+
+    void panBy(int dx, int dy) {
+        viewX -= dx / scale;
+        viewY -= dy / scale;
+        invalidateLayers();
+    }
+
+    private void invalidateLayers() {
+        edgeLayerDirty = highlightLayerDirty = nodeLayerDirty = true;
+    }
+
+    void paint(Graphics2D g, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        if (indexDirty) rebuildIndex();
+        if (edgeLayer == null || edgeLayer.getWidth() != width || edgeLayer.getHeight() != height) {
+            edgeLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            highlightLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            nodeLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            invalidateLayers();
+        }
+        if (edgeLayerDirty || highlightLayerDirty) {
+            int[] visibleEdges = visibleEdges(width, height);
+            if (edgeLayerDirty) drawEdgeLayer(visibleEdges);
+            drawHighlightLayer(visibleEdges);
+        }
+        if (nodeLayerDirty) drawNodeLayer(width, height);
+        g.drawImage(edgeLayer, 0, 0, null);
+        g.drawImage(highlightLayer, 0, 0, null);
+        g.drawImage(nodeLayer, 0, 0, null);
+    }
+
+    private boolean labelsVisible(int visibleItems) {
+        return scale >= LABEL_ZOOM_THRESHOLD && visibleItems <= MAX_LABELED_ITEMS;
+    }
+
+    private Graphics2D clearLayer(BufferedImage layer) {
+        Graphics2D g = layer.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        return g;
+    }
+
+    private void drawEdgeLayer(int[] visibleEdges) {
+        Graphics2D g = clearLayer(edgeLayer);
+        g.setColor(Color.BLACK); // Normal edges in black
+        boolean labels = labelsVisible(visibleEdges.length);
+        for (int index : visibleEdges) {
+            drawEdge(g, index, labels);
+        }
+        g.dispose();
+        edgeLayerDirty = false;
+    }
+
+    private void drawHighlightLayer(int[] visibleEdges) {
+        Graphics2D g = clearLayer(highlightLayer);
+        boolean labels = labelsVisible(visibleEdges.length);
+        for (int index : visibleEdges) {
+            if (index >= highlight.length || highlight[index] == NONE) continue;
+            // Shortest path edges in green, MST edges in red
+            g.setColor(highlight[index] == PATH ? Color.GREEN : Color.RED);
+            drawEdge(g, index, labels);
+        }
+        g.dispose();
+        highlightLayerDirty = false;
+    }
+
+    private void drawEdge(Graphics2D g, int edge, boolean label) {
+        int from = graph.edgeFrom(edge), to = graph.edgeTo(edge);
+        int x1 = screenX(graph.nodeX(from)), y1 = screenY(graph.nodeY(from));
+        int x2 = screenX(graph.nodeX(to)), y2 = screenY(graph.nodeY(to));
+        g.drawLine(x1, y1, x2, y2);
+        if (label) {
+            g.drawString("C: " + graph.edgeCost(edge) + ", B: " + graph.edgeBandwidth(edge), (x1 + x2) / 2, (y1 + y2) / 2);
+        }
+    }
+
+    private void drawNodeLayer(int width, int height) {
+        Graphics2D g = clearLayer(nodeLayer);
+        g.setColor(Color.BLUE);
+        int[] visibleNodes = visibleNodes(width, height);
+        boolean labels = labelsVisible(visibleNodes.length);
+        for (int node : visibleNodes) {
+            int x = screenX(graph.nodeX(node)), y = screenY(graph.nodeY(node));
+            g.fillOval(x - NODE_RADIUS, y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
+            if (labels) {
+                g.drawString(graph.nodeName(node) + " (" + graph.nodeType(node) + ")", x + NODE_RADIUS, y + NODE_RADIUS);
+            }
+        }
+        g.dispose();
+        nodeLayerDirty = false;
+    }
+
+    private int screenX(double worldX) {
+        return (int) Math.round((worldX - viewX) * scale);
+    }
+
+    private int screenY(double worldY) {
+        return (int) Math.round((worldY - viewY) * scale);
+    }
+
+    // Builds the grid so that there are roughly four edges per cell
+    private void rebuildIndex() {
+        int nodeCount = graph.nodeCount(), edgeCount = graph.edgeCount();
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            minX = Math.min(minX, graph.nodeX(i));
+            minY = Math.min(minY, graph.nodeY(i));
+            maxX = Math.max(maxX, graph.nodeX(i));
+            maxY = Math.max(maxY, graph.nodeY(i));
+        }
+        if (nodeCount == 0) minX = minY = maxX = maxY = 0;
+        int extent = Math.max(maxX - minX, maxY - minY) + 1;
+        int side = (int) Math.max(1, Math.min(1024, Math.sqrt(Math.max(edgeCount, nodeCount) / 4.0)));
+        gridMinX = minX;
+        gridMinY = minY;
+        cellSize = Math.max(8, (extent + side - 1) / side);
+        columns = (maxX - minX) / cellSize + 1;
+        rows = (maxY - minY) / cellSize + 1;
+        int cellCount = columns * rows;
+
+        // Nodes: one cell each, CSR built by counting then filling
+        nodeCellStart = new int[cellCount + 1];
+        for (int i = 0; i < nodeCount; i++) nodeCellStart[cellOf(graph.nodeX(i), graph.nodeY(i)) + 1]++;
+        for (int c = 0; c < cellCount; c++) nodeCellStart[c + 1] += nodeCellStart[c];
+        nodeCellItems = new int[nodeCount];
+        int[] cursor = Arrays.copyOf(nodeCellStart, cellCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodeCellItems[cursor[cellOf(graph.nodeX(i), graph.nodeY(i))]++] = i;
+        }
+
+        // Edges: every cell covered by the bounding box, unless that is too many cells
+        edgeCellStart = new int[cellCount + 1];
+        int longCount = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            if (graph.isEdgeRemoved(i)) continue;
+            if (coveredCells(i) > LONG_EDGE_CELLS) {
+                longCount++;
+                continue;
+            }
+            forEachCoveredCell(i, c -> edgeCellStart[c + 1]++);
+        }
+        for (int c = 0; c < cellCount; c++) edgeCellStart[c + 1] += edgeCellStart[c];
+        edgeCellItems = new int[edgeCellStart[cellCount]];
+        longEdges = new int[longCount];
+        longCount = 0;
+        int[] edgeCursor = Arrays.copyOf(edgeCellStart, cellCount);
+        for (int i = 0; i < edgeCount; i++) {
+            if (graph.isEdgeRemoved(i)) continue;
+            if (coveredCells(i) > LONG_EDGE_CELLS) {
+                longEdges[longCount++] = i;
+                continue;
+            }
+            final int edge = i;
+            forEachCoveredCell(i, c -> edgeCellItems[edgeCursor[c]++] = edge);
+        }
+        seenStamp = new int[edgeCount];
+        stamp = 0;
+        indexDirty = false;
+    }
+
+    private int cellOf(int x, int y) {
+        return ((y - gridMinY) / cellSize) * columns + (x - gridMinX) / cellSize;
+    }
+
+    private int coveredCells(int edge) {
+        int from = graph.edgeFrom(edge), to = graph.edgeTo(edge);
+        int cols = Math.abs(graph.nodeX(from) - graph.nodeX(to)) / cellSize + 2;
+        int rowsCovered = Math.abs(graph.nodeY(from) - graph.nodeY(to)) / cellSize + 2;
+        return cols * rowsCovered;
+    }
+
+    private void forEachCoveredCell(int edge, java.util.function.IntConsumer action) {
+        int x1 = graph.nodeX(graph.edgeFrom(edge)), x2 = graph.nodeX(graph.edgeTo(edge));
+        int y1 = graph.nodeY(graph.edgeFrom(edge)), y2 = graph.nodeY(graph.edgeTo(edge));
+        int c0 = (Math.min(x1, x2) - gridMinX) / cellSize, c1 = (Math.max(x1, x2) - gridMinX) / cellSize;
+        int r0 = (Math.min(y1, y2) - gridMinY) / cellSize, r1 = (Math.max(y1, y2) - gridMinY) / cellSize;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) action.accept(r * columns + c);
+        }
+    }
+
+    // Visible world rectangle expanded by the node radius, as grid cell bounds {c0, r0, c1, r1}
+    private int[] visibleCells(int width, int height) {
+        double margin = NODE_RADIUS / scale;
+        int c0 = (int) Math.floor((viewX - margin - gridMinX) / cellSize);
+        int r0 = (int) Math.floor((viewY - margin - gridMinY) / cellSize);
+        int c1 = (int) Math.floor((viewX + width / scale + margin - gridMinX) / cellSize);
+        int r1 = (int) Math.floor((viewY + height / scale + margin - gridMinY) / cellSize);
+        return new int[]{Math.max(c0, 0), Math.max(r0, 0), Math.min(c1, columns - 1), Math.min(r1, rows - 1)};
+    }
+
+    int[] visibleEdges(int width, int height) {
+        if (indexDirty) rebuildIndex();
+        if (++stamp == 0) { // Stamp wrapped around: reset so stale stamps cannot match
+            Arrays.fill(seenStamp, 0);
+            stamp = 1;
+        }
+        int[] result = new int[16];
+        int count = 0;
+        int[] cells = visibleCells(width, height);
+        for (int r = cells[1]; r <= cells[3]; r++) {
+            for (int c = cells[0]; c <= cells[2]; c++) {
+                int cell = r * columns + c;
+                for (int i = edgeCellStart[cell]; i < edgeCellStart[cell + 1]; i++) {
+                    int edge = edgeCellItems[i];
+                    if (seenStamp[edge] == stamp) continue;
+                    seenStamp[edge] = stamp;
+                    if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                    result[count++] = edge;
+                }
+            }
+        }
+        double left = viewX, top = viewY, right = viewX + width / scale, bottom = viewY + height / scale;
+        for (int edge : longEdges) {
+            int x1 = graph.nodeX(graph.edgeFrom(edge)), x2 = graph.nodeX(graph.edgeTo(edge));
+            int y1 = graph.nodeY(graph.edgeFrom(edge)), y2 = graph.nodeY(graph.edgeTo(edge));
+            if (Math.max(x1, x2) < left || Math.min(x1, x2) > right
+                    || Math.max(y1, y2) < top || Math.min(y1, y2) > bottom) continue;
+            if (count == result.length) result = Arrays.copyOf(result, count * 2);
+            result[count++] = edge;
+        }
+        // Keep insertion order so overlapping edges are drawn as before
+        int[] visible = Arrays.copyOf(result, count);
+        Arrays.sort(visible);
+        return visible;
+    }
+
+    private int[] visibleNodes(int width, int height) {
+        int[] cells = visibleCells(width, height);
+        int[] result = new int[16];
+        int count = 0;
+        for (int r = cells[1]; r <= cells[3]; r++) {
+            for (int c = cells[0]; c <= cells[2]; c++) {
+                int cell = r * columns + c;
+                for (int i = nodeCellStart[cell]; i < nodeCellStart[cell + 1]; i++) {
+                    if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                    result[count++] = nodeCellItems[i];
+                }
+            }
+        }
+        int[] visible = Arrays.copyOf(result, count);
+        Arrays.sort(visible);
+        return visible;
+    }
+}
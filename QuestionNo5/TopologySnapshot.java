@@ -0,0 +1,308 @@
+// Immutable, int-indexed copy of the network taken on the Swing event thread.
+// Background jobs run their algorithms against a snapshot, so the UI can keep adding nodes
+// and edges (and keep painting) while a large computation is in progress. Node i and edge i of
+// the snapshot are node i and edge i of the topology at the time the snapshot was taken.
+//
+// Long-running loops poll the thread's interrupt flag, so SwingWorker.cancel(true) stops them,
+// and report their progress (0-100) through an IntConsumer.
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+final class TopologySnapshot {
+    private static final int CHECK_INTERVAL = 4096; // Iterations between cancel/progress checks
+
+    final int nodeCount;
+    final int edgeCount;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final int[] edgeCost;
+    private final int[] edgeBandwidth;
+    // Forward-star adjacency: slot 2e runs from -> to, slot 2e + 1 runs to -> from
+    private final int[] adjacencyHead;
+    private final int[] nextSlot;
+
+    // Takes ownership of the arrays; callers must pass copies they will not modify
+    TopologySnapshot(int nodeCount, int edgeCount, int[] edgeFrom, int[] edgeTo, int[] edgeCost,
+                     int[] edgeBandwidth, int[] adjacencyHead, int[] nextSlot) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeCost = edgeCost;
+        this.edgeBandwidth = edgeBandwidth;
+        this.adjacencyHead = adjacencyHead;
+        this.nextSlot = nextSlot;
+    }
+
+    // Result of a minimum spanning forest computation
+    static final class SpanningForest {
+        final int[] edgeIndices; // Chosen edges, in the order Prim added them
+        final int components; // Number of trees (1 when the network is connected)
+        final long totalCost;
+
+        SpanningForest(int[] edgeIndices, int components, long totalCost) {
+            this.edgeIndices = edgeIndices;
+            this.components = components;
+            this.totalCost = totalCost;
+        }
+    }
+
+    // A route with its total cost and bottleneck (minimum) bandwidth
+    static final class Route {
+        final int[] edgeIndices; // Edges in source-to-target order
+        final long cost;
+        final int bottleneck;
+
+        Route(int[] edgeIndices, long cost, int bottleneck) {
+            this.edgeIndices = edgeIndices;
+            this.cost = cost;
+            this.bottleneck = bottleneck;
+        }
+    }
+
+    // Node reached by following an adjacency slot
+    private int slotTarget(int slot) {
+        int edge = slot >> 1;
+        return (slot & 1) == 0 ? edgeTo[edge] : edgeFrom[edge];
+    }
+
+    // Dijkstra’s Algorithm for Shortest Path
+    // Uses the indexed heap so each node is queued once and only its key is lowered.
+    // Returns the edge indices from source to target, or null if the target cannot be reached.
+    int[] shortestPath(int source, int target, IntConsumer progress) {
+        long[] distance = new long[nodeCount];
+        int[] viaSlot = new int[nodeCount]; // Slot used to reach each node on its shortest path
+        boolean[] settled = new boolean[nodeCount];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        IndexMinHeap heap = new IndexMinHeap(nodeCount);
+        distance[source] = 0;
+        heap.insertOrDecrease(source, 0);
+
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled[current] = true;
+            if (current == target) break;
+            if (++settledCount % CHECK_INTERVAL == 0) checkpoint(settledCount, nodeCount, progress);
+            for (int slot = adjacencyHead[current]; slot != -1; slot = nextSlot[slot]) {
+                int neighbor = slotTarget(slot);
+                if (settled[neighbor]) continue;
+                long candidate = distance[current] + edgeCost[slot >> 1];
+                if (candidate < distance[neighbor]) {
+                    distance[neighbor] = candidate;
+                    viaSlot[neighbor] = slot;
+                    heap.insertOrDecrease(neighbor, candidate);
+                }
+            }
+        }
+        if (distance[target] == Long.MAX_VALUE) return null;
+        return tracePath(source, target, viaSlot);
+    }
+
+    // Walks back from the target along viaSlot and returns the edges in source-to-target order
+    private int[] tracePath(int source, int target, int[] viaSlot) {
+        int length = 0;
+        for (int node = target; node != source; node = slotTarget(viaSlot[node] ^ 1)) length++;
+        int[] path = new int[length];
+        for (int node = target; node != source; node = slotTarget(viaSlot[node] ^ 1)) {
+            path[--length] = viaSlot[node] >> 1;
+        }
+        return path;
+    }
+
+    // Widest (maximum bottleneck) path: Dijkstra with "distance" replaced by the smallest bandwidth
+    // on the path, maximized instead of minimized. The min-heap is keyed by the negated bottleneck.
+    // Returns the edge indices from source to target, or null if the target cannot be reached.
+    int[] widestPath(int source, int target, IntConsumer progress) {
+        int[] width = new int[nodeCount]; // Best bottleneck found so far, -1 if unreached
+        int[] viaSlot = new int[nodeCount];
+        boolean[] settled = new boolean[nodeCount];
+        Arrays.fill(width, -1);
+        IndexMinHeap heap = new IndexMinHeap(nodeCount);
+        width[source] = Integer.MAX_VALUE;
+        heap.insertOrDecrease(source, -(long) Integer.MAX_VALUE);
+
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled[current] = true;
+            if (current == target) break;
+            if (++settledCount % CHECK_INTERVAL == 0) checkpoint(settledCount, nodeCount, progress);
+            for (int slot = adjacencyHead[current]; slot != -1; slot = nextSlot[slot]) {
+                int neighbor = slotTarget(slot);
+                if (settled[neighbor]) continue;
+                int candidate = Math.min(width[current], edgeBandwidth[slot >> 1]);
+                if (candidate > width[neighbor]) {
+                    width[neighbor] = candidate;
+                    viaSlot[neighbor] = slot;
+                    heap.insertOrDecrease(neighbor, -(long) candidate);
+                }
+            }
+        }
+        if (width[target] == -1) return null;
+        return tracePath(source, target, viaSlot);
+    }
+
+    // Cost-constrained routing: returns the Pareto frontier of (cost, bottleneck bandwidth) routes
+    // from source to target whose cost is at most maxCost, cheapest first. Each route on the frontier
+    // is strictly wider than every cheaper one.
+    //
+    // Bi-criteria label setting: labels (node, cost, width) are popped in order of increasing cost
+    // (ties: wider first). Because of that order a label is dominated exactly when an earlier label at
+    // the same node was at least as wide, so each node only keeps its best settled width. A label no
+    // wider than the best route already found to the target can never extend to a new frontier point
+    // either, since its cost is already higher, so it is dropped as well. Every node
+    // accepts at most one label per distinct bandwidth value, bounding the work by
+    // O(B * E log(B * E)) for B distinct bandwidths.
+    Route[] paretoRoutes(int source, int target, long maxCost, IntConsumer progress) {
+        LabelHeap labels = new LabelHeap();
+        int[] bestWidth = new int[nodeCount]; // Widest settled label per node, -1 if none
+        Arrays.fill(bestWidth, -1);
+        java.util.List<Route> frontier = new java.util.ArrayList<>();
+        labels.push(source, 0, Integer.MAX_VALUE, -1, -1);
+
+        int accepted = 0;
+        while (!labels.isEmpty()) {
+            int label = labels.poll();
+            int node = labels.node[label];
+            int width = labels.width[label];
+            // Dominated by a cheaper label at least as wide, here or already at the target
+            if (width <= bestWidth[node] || width <= bestWidth[target]) continue;
+            bestWidth[node] = width;
+            if (++accepted % CHECK_INTERVAL == 0) checkpoint(accepted, (long) nodeCount * 4, progress);
+            if (node == target) {
+                frontier.add(new Route(labels.trace(label), labels.cost[label], width));
+                continue; // Leaving the target again can only produce cycles
+            }
+            for (int slot = adjacencyHead[node]; slot != -1; slot = nextSlot[slot]) {
+                int neighbor = slotTarget(slot);
+                long cost = labels.cost[label] + edgeCost[slot >> 1];
+                int candidateWidth = Math.min(width, edgeBandwidth[slot >> 1]);
+                if (cost > maxCost || candidateWidth <= bestWidth[neighbor] || candidateWidth <= bestWidth[target]) continue;
+                labels.push(neighbor, cost, candidateWidth, label, slot >> 1);
+            }
+        }
+        return frontier.toArray(new Route[0]);
+    }
+
+    // Growable label store with a binary heap ordered by (cost ascending, width descending).
+    // Labels are never removed from the store, so a label's predecessor chain stays valid.
+    private static final class LabelHeap {
+        int[] node = new int[64];
+        long[] cost = new long[64];
+        int[] width = new int[64];
+        int[] previous = new int[64]; // Label this one extends, -1 at the source
+        int[] viaEdge = new int[64]; // Edge used to extend the previous label
+        private int labelCount;
+        private int[] heap = new int[64];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int labelNode, long labelCost, int labelWidth, int previousLabel, int edge) {
+            if (labelCount == node.length) {
+                int capacity = labelCount * 2;
+                node = Arrays.copyOf(node, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+                width = Arrays.copyOf(width, capacity);
+                previous = Arrays.copyOf(previous, capacity);
+                viaEdge = Arrays.copyOf(viaEdge, capacity);
+            }
+            int label = labelCount++;
+            node[label] = labelNode;
+            cost[label] = labelCost;
+            width[label] = labelWidth;
+            previous[label] = previousLabel;
+            viaEdge[label] = edge;
+            if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+            int slot = size++;
+            while (slot > 0) {
+                int parentSlot = (slot - 1) >>> 1;
+                if (!before(label, heap[parentSlot])) break;
+                heap[slot] = heap[parentSlot];
+                slot = parentSlot;
+            }
+            heap[slot] = label;
+        }
+
+        int poll() {
+            int top = heap[0];
+            int last = heap[--size];
+            int slot = 0;
+            int half = size >>> 1;
+            while (slot < half) {
+                int child = 2 * slot + 1;
+                if (child + 1 < size && before(heap[child + 1], heap[child])) child++;
+                if (!before(heap[child], last)) break;
+                heap[slot] = heap[child];
+                slot = child;
+            }
+            if (size > 0) heap[slot] = last;
+            return top;
+        }
+
+        private boolean before(int a, int b) {
+            return cost[a] < cost[b] || (cost[a] == cost[b] && width[a] > width[b]);
+        }
+
+        // Edge indices from the source to the given label
+        int[] trace(int label) {
+            int length = 0;
+            for (int l = label; previous[l] != -1; l = previous[l]) length++;
+            int[] path = new int[length];
+            for (int l = label; previous[l] != -1; l = previous[l]) path[--length] = viaEdge[l];
+            return path;
+        }
+    }
+
+    // Prim's Algorithm for Minimum Spanning Tree (eager version)
+    // The indexed heap holds each outside node once, keyed by its cheapest edge into the tree,
+    // so every edge is examined twice overall: O(E log V). When the tree cannot grow any further
+    // Prim restarts from the next unvisited node, producing a minimum spanning forest.
+    SpanningForest minimumSpanningForest(IntConsumer progress) {
+        int[] chosen = new int[Math.max(nodeCount - 1, 0)];
+        int chosenCount = 0;
+        int components = 0;
+        long totalCost = 0;
+        boolean[] inTree = new boolean[nodeCount];
+        int[] bestSlot = new int[nodeCount]; // Cheapest known slot connecting each node to the tree
+        IndexMinHeap heap = new IndexMinHeap(nodeCount);
+
+        int visited = 0;
+        for (int root = 0; root < nodeCount; root++) {
+            if (inTree[root]) continue;
+            components++;
+            bestSlot[root] = -1;
+            heap.insertOrDecrease(root, 0);
+            while (!heap.isEmpty()) {
+                int current = heap.poll();
+                inTree[current] = true;
+                if (++visited % CHECK_INTERVAL == 0) checkpoint(visited, nodeCount, progress);
+                if (bestSlot[current] != -1) {
+                    chosen[chosenCount++] = bestSlot[current] >> 1;
+                    totalCost += edgeCost[bestSlot[current] >> 1];
+                }
+                for (int slot = adjacencyHead[current]; slot != -1; slot = nextSlot[slot]) {
+                    int neighbor = slotTarget(slot);
+                    if (inTree[neighbor]) continue;
+                    int cost = edgeCost[slot >> 1];
+                    if (!heap.contains(neighbor) || cost < heap.keyOf(neighbor)) {
+                        bestSlot[neighbor] = slot;
+                        heap.insertOrDecrease(neighbor, cost);
+                    }
+                }
+            }
+        }
+        return new SpanningForest(Arrays.copyOf(chosen, chosenCount), components, totalCost);
+    }
+
+    // Stops the computation if the worker was cancelled, otherwise reports progress
+    private static void checkpoint(long done, long total, IntConsumer progress) {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException();
+        progress.accept((int) Math.min(100, done * 100 / Math.max(total, 1)));
+    }
+}
@@ -0,0 +1,64 @@
+// Non-blocking page fetcher for WebCrawler built on java.net.http.HttpClient.
+// Requests are sent with sendAsync, so no thread waits while a response is on the wire; the client
+// keeps HTTP/1.1 connections alive and reuses them for later requests to the same host. A semaphore
+// caps the number of requests in flight: fetch() blocks the caller until a slot is free, which gives
+// the crawler natural back-pressure instead of an unbounded pile of pending requests.
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+final class AsyncFetcher {
+    private final HttpClient client;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Duration timeout;
+
+    // Responses are handled on the given executor; timeout bounds both connecting and the whole exchange
+    AsyncFetcher(int maxInFlight, Duration timeout, Executor executor) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(timeout)
+                .executor(executor)
+                .build();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+    }
+
+    // Starts a GET for the URL, waiting first for a free in-flight slot. The slot is released when the
+    // returned future completes, successfully or not.
+    CompletableFuture<HttpResponse<byte[]>> fetch(String url) throws InterruptedException {
+        return fetch(url, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // Same, with the body consumed by the given handler as it arrives
+    <T> CompletableFuture<HttpResponse<T>> fetch(String url, HttpResponse.BodyHandler<T> bodyHandler)
+            throws InterruptedException {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url)).timeout(timeout).GET().build();
+        } catch (IllegalArgumentException e) { // Malformed or unsupported URL
+            return CompletableFuture.failedFuture(e);
+        }
+        inFlight.acquire();
+        try {
+            return client.sendAsync(request, bodyHandler)
+                    .whenComplete((response, error) -> inFlight.release());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    // Number of requests currently in flight
+    int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+}
@@ -0,0 +1,69 @@
+// Printer that writes the sequence as ASCII into a 64 KB buffer and hands it to the underlying
+// stream in whole chunks, instead of taking the PrintStream lock (and possibly flushing) per number.
+// The controllers let exactly one thread print at a time and every handoff is a happens-before
+// edge, so the threads append into the buffer in sequence order without any locking of their own.
+// Call flush() once all threads have been joined. The bytes written are the same as NumberPrinter's.
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+class BufferedNumberPrinter extends NumberPrinter {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int MAX_DIGITS = 10; // Digits of Integer.MAX_VALUE
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private int position;
+
+    public BufferedNumberPrinter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void printZero() {
+        if (position == CHUNK_SIZE) drain();
+        buffer[position++] = '0';
+    }
+
+    @Override
+    public void printEven(int num) {
+        append(num);
+    }
+
+    @Override
+    public void printOdd(int num) {
+        append(num);
+    }
+
+    // Writes the decimal digits of a positive number without creating a String
+    private void append(int num) {
+        if (position > CHUNK_SIZE - MAX_DIGITS) drain();
+        int digits = 1;
+        for (int rest = num / 10; rest != 0; rest /= 10) digits++;
+        position += digits;
+        for (int i = position - 1; i >= position - digits; i--) {
+            buffer[i] = (byte) ('0' + num % 10);
+            num /= 10;
+        }
+    }
+
+    private void drain() {
+        try {
+            out.write(buffer, 0, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+    }
+
+    // Writes out whatever is still buffered
+    public void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+// Pending crawl work for WebCrawler: the URLs waiting to be fetched, each with the depth at which it
+// was found. Implementations are thread-safe; take() blocks (without spinning) until there is work.
+// The crawler closes the frontier once the crawl has quiesced, which releases every blocked take().
+
+interface CrawlFrontier {
+
+    // Queues a URL that has not been queued before
+    void add(String url, int depth);
+
+    // Reports a further link to a URL that was already added. Frontiers that rank URLs by their
+    // in-links, such as PriorityFrontier, use it; the others ignore it.
+    default void linked(String url) {
+    }
+
+    // Removes the next entry, waiting while the frontier is empty; returns null once the frontier has
+    // been closed and drained
+    Entry take() throws InterruptedException;
+
+    // Reports that a taken entry has been processed: its fetch has finished (successfully or not) and
+    // its links have been queued. Frontiers that limit concurrent fetches, such as PoliteFrontier, use
+    // it to release the entry's host; SpillingFrontier stops treating the entry as in flight.
+    default void completed(Entry entry) {
+    }
+
+    // No more entries will be added; blocked and later take() calls return null when empty
+    void close();
+
+    // Number of queued entries
+    long size();
+
+    class Entry {
+        final String url;
+        final int depth;
+
+        Entry(String url, int depth) {
+            this.url = url;
+            this.depth = depth;
+        }
+    }
+}
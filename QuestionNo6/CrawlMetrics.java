@@ -0,0 +1,218 @@
+// Instrumentation for WebCrawler: where the crawl's time goes, without slowing it down.
+// The crawler reports each fetch start, fetch end (with its latency and body size) and parse (the
+// time spent scanning the body and queueing its links). Totals are LongAdders, which spread
+// concurrent increments over cells instead of contending on one counter; fetch and parse latencies go
+// into LatencyHistograms; requests in flight are counted per host in a ConcurrentHashMap that only
+// holds hosts with a fetch in progress. Nothing is computed when recording: snapshot() sums the
+// counters and reads the frontier size and the number of requests in flight, and the same figures
+// are exposed as a JMX MXBean (register()).
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+final class CrawlMetrics implements CrawlMetricsMXBean {
+    private final LongAdder pagesFetched = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder linksQueued = new LongAdder();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final ConcurrentHashMap<String, Integer> inFlightByHost = new ConcurrentHashMap<>();
+    private final LongSupplier frontierSize;
+    private final IntSupplier inFlight;
+    private volatile long startedAt = System.nanoTime();
+
+    CrawlMetrics(LongSupplier frontierSize, IntSupplier inFlight) {
+        this.frontierSize = frontierSize;
+        this.inFlight = inFlight;
+    }
+
+    // Starts the clock for the rates
+    void start() {
+        startedAt = System.nanoTime();
+    }
+
+    // Called before the fetch is handed to the fetcher, so a host's count includes a fetch that is
+    // still waiting for an in-flight slot
+    void fetchStarted(String host) {
+        inFlightByHost.merge(host, 1, Integer::sum);
+    }
+
+    // A failed fetch is one that got no response at all; any status code counts as fetched
+    void fetchFinished(String host, long nanos, long bytes, boolean failed) {
+        inFlightByHost.computeIfPresent(host, (key, count) -> count == 1 ? null : count - 1);
+        fetchLatency.recordNanos(nanos);
+        bytesReceived.add(bytes);
+        (failed ? fetchFailures : pagesFetched).increment();
+    }
+
+    void parsed(long nanos, int queued) {
+        parseLatency.recordNanos(nanos);
+        linksQueued.add(queued);
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // Registers the metrics with the platform MBean server; returns the name, or null if that failed
+    ObjectName register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("WebCrawler:type=CrawlMetrics,id=" + System.identityHashCode(this));
+            server.registerMBean(this, name);
+            return name;
+        } catch (JMException e) {
+            System.err.println("Could not register crawl metrics: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static void unregister(ObjectName name) {
+        if (name == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // Already gone
+        }
+    }
+
+    private double seconds() {
+        return Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    @Override
+    public long getPagesFetched() {
+        return pagesFetched.sum();
+    }
+
+    @Override
+    public long getFetchFailures() {
+        return fetchFailures.sum();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public long getLinksQueued() {
+        return linksQueued.sum();
+    }
+
+    @Override
+    public double getPagesPerSecond() {
+        return pagesFetched.sum() / seconds();
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return bytesReceived.sum() / seconds();
+    }
+
+    @Override
+    public long getFrontierSize() {
+        return frontierSize.getAsLong();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.getAsInt();
+    }
+
+    @Override
+    public Map<String, Integer> getInFlightByHost() {
+        return new TreeMap<>(inFlightByHost);
+    }
+
+    @Override
+    public long getFetchLatencyP50Micros() {
+        return fetchLatency.percentileMicros(50);
+    }
+
+    @Override
+    public long getFetchLatencyP99Micros() {
+        return fetchLatency.percentileMicros(99);
+    }
+
+    @Override
+    public long getParseLatencyP50Micros() {
+        return parseLatency.percentileMicros(50);
+    }
+
+    @Override
+    public long getParseLatencyP99Micros() {
+        return parseLatency.percentileMicros(99);
+    }
+
+    // The metrics at one moment
+    static final class Snapshot {
+        final long nanoTime;
+        final double seconds; // Since the crawl started
+        final long pagesFetched, fetchFailures, bytesReceived, linksQueued, frontierSize;
+        final int inFlight;
+        final Map<String, Integer> inFlightByHost;
+        final long fetchP50, fetchP90, fetchP99, fetchMax; // Microseconds
+        final long parseP50, parseP90, parseP99, parseMax;
+
+        private Snapshot(CrawlMetrics metrics) {
+            nanoTime = System.nanoTime();
+            seconds = metrics.seconds();
+            pagesFetched = metrics.pagesFetched.sum();
+            fetchFailures = metrics.fetchFailures.sum();
+            bytesReceived = metrics.bytesReceived.sum();
+            linksQueued = metrics.linksQueued.sum();
+            frontierSize = metrics.getFrontierSize();
+            inFlight = metrics.getInFlight();
+            inFlightByHost = metrics.getInFlightByHost();
+            fetchP50 = metrics.fetchLatency.percentileMicros(50);
+            fetchP90 = metrics.fetchLatency.percentileMicros(90);
+            fetchP99 = metrics.fetchLatency.percentileMicros(99);
+            fetchMax = metrics.fetchLatency.maxMicros();
+            parseP50 = metrics.parseLatency.percentileMicros(50);
+            parseP90 = metrics.parseLatency.percentileMicros(90);
+            parseP99 = metrics.parseLatency.percentileMicros(99);
+            parseMax = metrics.parseLatency.maxMicros();
+        }
+
+        double pagesPerSecond() {
+            return pagesFetched / seconds;
+        }
+
+        double bytesPerSecond() {
+            return bytesReceived / seconds;
+        }
+
+        // Pages per second between an earlier snapshot and this one
+        double pagesPerSecondSince(Snapshot earlier) {
+            return (pagesFetched - earlier.pagesFetched) / Math.max(1e-9, (nanoTime - earlier.nanoTime) / 1e9);
+        }
+
+        double bytesPerSecondSince(Snapshot earlier) {
+            return (bytesReceived - earlier.bytesReceived) / Math.max(1e-9, (nanoTime - earlier.nanoTime) / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            String busiest = inFlightByHost.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(e -> ", busiest " + e.getKey() + " " + e.getValue())
+                    .orElse("");
+            return String.format("%.1f s: %,d pages (%,.1f/s), %,.1f MB (%,.2f MB/s), %,d failed, %,d links queued, "
+                            + "frontier %,d, in flight %d on %d hosts%s, fetch us p50/p90/p99/max %,d/%,d/%,d/%,d, "
+                            + "parse us %,d/%,d/%,d/%,d",
+                    seconds, pagesFetched, pagesPerSecond(), bytesReceived / 1e6, bytesPerSecond() / 1e6,
+                    fetchFailures, linksQueued, frontierSize, inFlight, inFlightByHost.size(), busiest,
+                    fetchP50, fetchP90, fetchP99, fetchMax, parseP50, parseP90, parseP99, parseMax);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+// Management interface of CrawlMetrics, so a running crawl can be watched from jconsole or any other
+// JMX client under the name WebCrawler:type=CrawlMetrics. Rates are averages since the crawl started;
+// latencies are in microseconds.
+
+import java.util.Map;
+
+public interface CrawlMetricsMXBean {
+
+    long getPagesFetched();
+
+    long getFetchFailures();
+
+    long getBytesReceived();
+
+    long getLinksQueued();
+
+    double getPagesPerSecond();
+
+    double getBytesPerSecond();
+
+    long getFrontierSize();
+
+    int getInFlight();
+
+    Map<String, Integer> getInFlightByHost();
+
+    long getFetchLatencyP50Micros();
+
+    long getFetchLatencyP99Micros();
+
+    long getParseLatencyP50Micros();
+
+    long getParseLatencyP99Micros();
+}
@@ -0,0 +1,91 @@
+// Benchmark for the crawler's fetch path against a local LinkGraphServer (no real sites are contacted).
+// The server answers every request after a fixed delay standing in for network latency.
+// - blocking: the previous design, a fixed pool of platform threads each doing one blocking
+//             HttpURLConnection request at a time
+// - async:    AsyncFetcher, requests sent with HttpClient.sendAsync and capped by its in-flight limit
+// - crawl:    a full WebCrawler run over the link graph, starting from page 0, with a FifoFrontier (the
+//             default per-host rate limit would make a single-host crawl measure the limit instead)
+// Run with: java CrawlerBenchmark [pages] [latencyMillis]
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CrawlerBenchmark {
+    private static final int BLOCKING_THREADS = 16;
+    private static final int MAX_IN_FLIGHT = 256;
+
+    public static void main(String[] args) throws Exception {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int latency = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        try (LinkGraphServer server = new LinkGraphServer(pages, 4, 1, latency)) {
+            System.out.printf("%,d pages, %d ms server latency%n", pages, latency);
+            blocking(server, Math.min(pages, 100)); // Warm-up
+            async(server, Math.min(pages, 100));
+            report("blocking (" + BLOCKING_THREADS + " threads)", pages, blocking(server, pages));
+            report("async (" + MAX_IN_FLIGHT + " in flight)", pages, async(server, pages));
+
+            WebCrawler crawler = new WebCrawler(4, Integer.MAX_VALUE, MAX_IN_FLIGHT, new FifoFrontier());
+            crawler.setVerbose(false);
+            long start = System.nanoTime();
+            crawler.startCrawling(server.pageUrl(0));
+            report("crawl (" + crawler.pagesCrawled() + " pages found)", crawler.pagesCrawled(),
+                    System.nanoTime() - start);
+        }
+    }
+
+    // Fetches pages 0 .. count-1 with blocking requests on a fixed thread pool; returns elapsed nanos
+    private static long blocking(LinkGraphServer server, int count) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(BLOCKING_THREADS);
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int t = 0; t < BLOCKING_THREADS; t++) {
+            pool.execute(() -> {
+                for (int page; (page = next.getAndIncrement()) < count; ) {
+                    try {
+                        HttpURLConnection connection =
+                                (HttpURLConnection) URI.create(server.pageUrl(page)).toURL().openConnection();
+                        connection.setConnectTimeout(5000);
+                        connection.setReadTimeout(5000);
+                        if (connection.getResponseCode() == 200) {
+                            try (InputStream in = connection.getInputStream()) {
+                                in.readAllBytes();
+                            }
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Failed to fetch page " + page + ": " + e.getMessage());
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    // Fetches pages 0 .. count-1 through AsyncFetcher; returns elapsed nanos
+    private static long async(LinkGraphServer server, int count) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AsyncFetcher fetcher = new AsyncFetcher(MAX_IN_FLIGHT, Duration.ofSeconds(5), pool);
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[count];
+        long start = System.nanoTime();
+        for (int page = 0; page < count; page++) {
+            responses[page] = fetcher.fetch(server.pageUrl(page));
+        }
+        CompletableFuture.allOf(responses).exceptionally(error -> null).join();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private static void report(String name, long pages, long nanos) {
+        System.out.printf("  %-32s %,9.0f pages/sec%n", name, pages / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,95 @@
+// First-in first-out CrawlFrontier with compact entries.
+// A queued entry is a single long, (urlId << 32) | depth, in a growable ring buffer, instead of a
+// linked-list node holding a String and a boxed depth. The URL strings sit in a slot table indexed by
+// urlId; a slot is freed as soon as its entry is taken and reused for later URLs, so the table is only
+// as large as the largest the frontier has been. One lock guards the queue; take() waits on a
+// condition while the frontier is empty.
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class FifoFrontier implements CrawlFrontier {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private long[] ring = new long[1024]; // Queued entries; capacity is a power of two
+    private int head, count;
+
+    private String[] urls = new String[1024]; // URL of each urlId in use
+    private int[] freeIds = new int[1024]; // Stack of released urlIds
+    private int freeCount, nextId;
+
+    private boolean closed;
+
+    @Override
+    public void add(String url, int depth) {
+        lock.lock();
+        try {
+            int id = freeCount > 0 ? freeIds[--freeCount] : allocateId();
+            urls[id] = url;
+            if (count == ring.length) growRing();
+            ring[(head + count) & (ring.length - 1)] = (long) id << 32 | depth;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Entry take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (count == 0 && !closed) notEmpty.await();
+            if (count == 0) return null;
+            long packed = ring[head];
+            head = (head + 1) & (ring.length - 1);
+            count--;
+            int id = (int) (packed >>> 32);
+            String url = urls[id];
+            urls[id] = null;
+            if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            freeIds[freeCount++] = id;
+            return new Entry(url, (int) packed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int allocateId() {
+        if (nextId == urls.length) urls = Arrays.copyOf(urls, nextId * 2);
+        return nextId++;
+    }
+
+    // Doubles the ring, unwrapping the entries to start at index 0
+    private void growRing() {
+        long[] grown = new long[ring.length * 2];
+        int firstPart = ring.length - head;
+        System.arraycopy(ring, head, grown, 0, firstPart);
+        System.arraycopy(ring, 0, grown, firstPart, head);
+        ring = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,72 @@
+// Concurrent latency histogram in the style of HdrHistogram, for the crawler's metrics.
+// Values are recorded in microseconds into log-linear buckets: every value below 128 has its own
+// bucket, and each power-of-two range above that is split into 64 equal buckets, so a bucket's width
+// is at most 1/64 (about 1.6%) of the values it holds, from 1 µs up to hours. Recording is one
+// atomic increment on a fixed array (no allocation, no lock) plus two LongAdder updates; percentiles
+// are computed on demand by walking the buckets.
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7; // 128 buckets for values below 128
+    private static final int HALF = 1 << (SUB_BUCKET_BITS - 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucket(Long.MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.getAndIncrement(bucket(micros));
+        count.increment();
+        sum.add(micros);
+        if (micros > max.get()) max.accumulateAndGet(micros, Math::max);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long maxMicros() {
+        return max.get();
+    }
+
+    double meanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / (double) n;
+    }
+
+    // Value at or below which the given percentage of recorded values fall (the upper bound of its
+    // bucket, capped at the maximum); 0 if nothing was recorded
+    long percentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestValue(i), max.get());
+        }
+        return max.get();
+    }
+
+    private static int bucket(long micros) {
+        if (micros < 2 * HALF) return (int) micros;
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros); // >= SUB_BUCKET_BITS
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+        return 2 * HALF + (magnitude - SUB_BUCKET_BITS) * HALF + (int) (micros >>> shift) - HALF;
+    }
+
+    // Largest value that falls into the bucket
+    private static long highestValue(int bucket) {
+        if (bucket < 2 * HALF) return bucket;
+        int magnitude = (bucket - 2 * HALF) / HALF + SUB_BUCKET_BITS;
+        int shift = magnitude - (SUB_BUCKET_BITS - 1);
+        long sub = (bucket - 2 * HALF) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,338 @@
+// Streaming href extractor for WebCrawler.
+// The body is fed chunk by chunk as it arrives (feed), and a byte-level state machine picks out the
+// values of href attributes without building a String of the page, a DOM, or running a regex. Text
+// between tags is skipped with a tight scan for '<'; inside a tag the machine follows attribute names
+// and values, so "href" only matches as an attribute name (any case, optional whitespace around '=',
+// double-quoted, single-quoted or unquoted values) and never inside another attribute's value, in
+// text, or in a comment. Its state carries over between chunks, so a tag or value may be split across
+// them. Heap buffers are scanned in place; other buffers are copied through one reusable scratch
+// buffer. Only the bytes of href values are copied (into a reusable value buffer) and decoded.
+//
+// resolve() turns a raw href into the absolute, normalized URL that the crawler queues: resolved
+// against the page URL, "&amp;" decoded, scheme and host lowercased, default ports and fragments
+// dropped, dot segments removed, and an empty path made "/". It returns null for anything that is not
+// an http or https URL (mailto:, javascript:, malformed links).
+//
+// subscriber() wraps an extractor in an HttpResponse.BodySubscriber, so links are extracted while the
+// response streams in on the HttpClient's executor and the body itself is never stored. It also
+// reports the body's size and the time spent scanning it, for CrawlMetrics.
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+final class LinkExtractor {
+    private static final int MAX_HREF_BYTES = 8192; // Longer values are dropped
+
+    // States of the scanner
+    private static final int TEXT = 0, TAG_OPEN = 1, TAG_NAME = 2, BEFORE_ATTRIBUTE = 3, ATTRIBUTE_NAME = 4,
+            AFTER_ATTRIBUTE_NAME = 5, BEFORE_VALUE = 6, DOUBLE_QUOTED = 7, SINGLE_QUOTED = 8, UNQUOTED = 9,
+            MARKUP_DECLARATION = 10, COMMENT_START = 11, COMMENT = 12, SKIP_TAG = 13;
+
+    private int state = TEXT;
+    private int nameMatched; // Characters of "href" matched by the current attribute name, -1 on mismatch
+    private boolean inHref; // The value being scanned belongs to an href attribute
+    private int dashes; // Consecutive '-' seen in a comment
+    private byte[] value = new byte[256];
+    private int valueLength;
+    private byte[] scratch; // For buffers without an accessible array
+    private final List<String> hrefs = new ArrayList<>();
+
+    // Forgets the links and state of the previous page
+    void reset() {
+        state = TEXT;
+        valueLength = 0;
+        hrefs.clear();
+    }
+
+    // Scans the buffer's remaining bytes and consumes them
+    void feed(ByteBuffer bytes) {
+        if (bytes.hasArray()) {
+            int start = bytes.arrayOffset() + bytes.position();
+            scan(bytes.array(), start, start + bytes.remaining());
+            bytes.position(bytes.limit());
+            return;
+        }
+        if (scratch == null) scratch = new byte[1 << 14];
+        while (bytes.hasRemaining()) {
+            int chunk = Math.min(scratch.length, bytes.remaining());
+            bytes.get(scratch, 0, chunk);
+            scan(scratch, 0, chunk);
+        }
+    }
+
+    void feed(byte[] bytes, int offset, int length) {
+        scan(bytes, offset, offset + length);
+    }
+
+    // Raw href values found so far, in document order (including duplicates)
+    List<String> hrefs() {
+        if (state == UNQUOTED) { // A value cut off by the end of the document
+            emit();
+            state = TEXT;
+        }
+        return hrefs;
+    }
+
+    private void scan(byte[] bytes, int i, int end) {
+        int state = this.state;
+        while (i < end) {
+            byte b = bytes[i];
+            switch (state) {
+                case TEXT:
+                    while (i < end && bytes[i] != '<') i++; // Most bytes are text: skip straight to the next tag
+                    if (i == end) continue;
+                    state = TAG_OPEN;
+                    break;
+                case TAG_OPEN:
+                    if (b == '!') {
+                        state = MARKUP_DECLARATION;
+                    } else if (b == '/' || isLetter(b)) {
+                        state = TAG_NAME;
+                    } else {
+                        state = b == '<' ? TAG_OPEN : TEXT; // A '<' in text
+                    }
+                    break;
+                case TAG_NAME:
+                    if (b == '>') state = TEXT;
+                    else if (isSpace(b) || b == '/') state = BEFORE_ATTRIBUTE;
+                    break;
+                case BEFORE_ATTRIBUTE:
+                    if (b == '>') state = TEXT;
+                    else if (!isSpace(b) && b != '/') state = startAttributeName(b);
+                    break;
+                case ATTRIBUTE_NAME:
+                    if (b == '=') {
+                        state = endAttributeName(BEFORE_VALUE);
+                    } else if (isSpace(b)) {
+                        state = endAttributeName(AFTER_ATTRIBUTE_NAME);
+                    } else if (b == '>') {
+                        state = TEXT;
+                    } else if (b == '/') {
+                        state = BEFORE_ATTRIBUTE;
+                    } else if (nameMatched >= 0) {
+                        boolean matches = nameMatched < 4 && toLower(b) == "href".charAt(nameMatched);
+                        nameMatched = matches ? nameMatched + 1 : -1;
+                    }
+                    break;
+                case AFTER_ATTRIBUTE_NAME:
+                    if (b == '=') state = BEFORE_VALUE;
+                    else if (b == '>') state = TEXT;
+                    else if (b == '/') state = BEFORE_ATTRIBUTE;
+                    else if (!isSpace(b)) state = startAttributeName(b); // The previous attribute had no value
+                    break;
+                case BEFORE_VALUE:
+                    if (isSpace(b)) break;
+                    valueLength = 0;
+                    if (b == '"') {
+                        state = DOUBLE_QUOTED;
+                    } else if (b == '\'') {
+                        state = SINGLE_QUOTED;
+                    } else if (b == '>') {
+                        state = TEXT;
+                    } else {
+                        state = UNQUOTED;
+                        append(b);
+                    }
+                    break;
+                case DOUBLE_QUOTED:
+                case SINGLE_QUOTED: {
+                    byte quote = state == DOUBLE_QUOTED ? (byte) '"' : (byte) '\'';
+                    int start = i;
+                    while (i < end && bytes[i] != quote) i++;
+                    if (inHref) append(bytes, start, i - start);
+                    if (i == end) continue;
+                    emit();
+                    state = BEFORE_ATTRIBUTE;
+                    break;
+                }
+                case UNQUOTED:
+                    if (isSpace(b) || b == '>') {
+                        emit();
+                        state = b == '>' ? TEXT : BEFORE_ATTRIBUTE;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case MARKUP_DECLARATION: // After "<!"
+                    state = b == '-' ? COMMENT_START : b == '>' ? TEXT : SKIP_TAG;
+                    break;
+                case COMMENT_START: // After "<!-"
+                    state = b == '-' ? COMMENT : b == '>' ? TEXT : SKIP_TAG;
+                    dashes = 0;
+                    break;
+                case COMMENT:
+                    if (b == '>' && dashes >= 2) state = TEXT;
+                    dashes = b == '-' ? dashes + 1 : 0;
+                    break;
+                default: // SKIP_TAG: <!DOCTYPE ...> and the like
+                    if (b == '>') state = TEXT;
+                    break;
+            }
+            i++;
+        }
+        this.state = state;
+    }
+
+    private int startAttributeName(byte b) {
+        nameMatched = toLower(b) == 'h' ? 1 : -1;
+        return ATTRIBUTE_NAME;
+    }
+
+    private int endAttributeName(int next) {
+        inHref = nameMatched == 4;
+        return next;
+    }
+
+    private void append(byte b) {
+        if (!inHref || valueLength > MAX_HREF_BYTES) return;
+        if (valueLength == value.length) {
+            if (valueLength == MAX_HREF_BYTES) {
+                valueLength = MAX_HREF_BYTES + 1; // Too long: dropped by emit()
+                return;
+            }
+            value = Arrays.copyOf(value, Math.min(value.length * 2, MAX_HREF_BYTES));
+        }
+        value[valueLength++] = b;
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        if (length == 0 || valueLength > MAX_HREF_BYTES) return;
+        if (valueLength + length > value.length) {
+            if (valueLength + length > MAX_HREF_BYTES) {
+                valueLength = MAX_HREF_BYTES + 1; // Too long: dropped by emit()
+                return;
+            }
+            value = Arrays.copyOf(value, Math.min(Math.max(value.length * 2, valueLength + length), MAX_HREF_BYTES));
+        }
+        System.arraycopy(bytes, offset, value, valueLength, length);
+        valueLength += length;
+    }
+
+    private void emit() {
+        if (inHref && valueLength <= MAX_HREF_BYTES) {
+            hrefs.add(new String(value, 0, valueLength, StandardCharsets.UTF_8));
+        }
+        inHref = false;
+        valueLength = 0;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b | 0x20) >= 'a' && (b | 0x20) <= 'z';
+    }
+
+    private static int toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + 32 : b;
+    }
+
+    // Absolute, normalized http(s) URL of an href found on the page at base, or null if there is none
+    static String resolve(URI base, String href) {
+        String link = href.strip();
+        if (link.indexOf('&') >= 0) link = link.replace("&amp;", "&");
+        if (link.isEmpty() || link.charAt(0) == '#') return null; // The page itself
+        try {
+            if (base.getRawPath() == null || base.getRawPath().isEmpty()) base = base.resolve("/"); // http://host
+            URI uri = base.resolve(link).normalize(); // normalize() removes dot segments
+            String scheme = uri.getScheme();
+            if (scheme == null || uri.getHost() == null) return null;
+            scheme = scheme.toLowerCase(Locale.ROOT);
+            if (!scheme.equals("http") && !scheme.equals("https")) return null;
+            StringBuilder url = new StringBuilder(link.length() + 32).append(scheme).append("://");
+            if (uri.getRawUserInfo() != null) url.append(uri.getRawUserInfo()).append('@');
+            url.append(uri.getHost().toLowerCase(Locale.ROOT));
+            int port = uri.getPort();
+            if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https"))) {
+                url.append(':').append(port);
+            }
+            String path = uri.getRawPath();
+            url.append(path == null || path.isEmpty() ? "/" : path);
+            if (uri.getRawQuery() != null) url.append('?').append(uri.getRawQuery());
+            return url.toString(); // Without the fragment
+        } catch (IllegalArgumentException e) {
+            return null; // Malformed link
+        }
+    }
+
+    // Normalized form of an absolute http(s) URL, or null if it is not one
+    static String normalize(String url) {
+        try {
+            return resolve(URI.create(url.strip()), url);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // A response body as seen by subscriber(): its hrefs, its size and the time spent scanning it
+    static final class ScannedBody {
+        final List<String> hrefs;
+        final long bytes;
+        final long scanNanos;
+
+        ScannedBody(List<String> hrefs, long bytes, long scanNanos) {
+            this.hrefs = hrefs;
+            this.bytes = bytes;
+            this.scanNanos = scanNanos;
+        }
+    }
+
+    // Body subscriber that extracts the hrefs of a response as it streams in; with extract false it
+    // only counts the bytes and discards them
+    static HttpResponse.BodySubscriber<ScannedBody> subscriber(boolean extract) {
+        return new HrefSubscriber(extract);
+    }
+
+    private static final class HrefSubscriber implements HttpResponse.BodySubscriber<ScannedBody> {
+        private final LinkExtractor extractor;
+        private final CompletableFuture<ScannedBody> body = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private long bytes, scanNanos;
+
+        HrefSubscriber(boolean extract) {
+            extractor = extract ? new LinkExtractor() : null;
+        }
+
+        @Override
+        public CompletionStage<ScannedBody> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) { // Calls are serialized by the client
+            long start = System.nanoTime();
+            for (ByteBuffer buffer : buffers) {
+                bytes += buffer.remaining();
+                if (extractor != null) extractor.feed(buffer);
+            }
+            scanNanos += System.nanoTime() - start;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            body.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(new ScannedBody(extractor != null ? extractor.hrefs() : List.of(), bytes, scanNanos));
+        }
+    }
+}
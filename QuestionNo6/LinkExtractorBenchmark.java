@@ -0,0 +1,149 @@
+// Throughput of href extraction on a corpus of generated HTML pages (no network involved).
+// Pages mix text, nested markup with class/style/data attributes, comments and links written in every
+// form the HTML syntax allows: double-quoted, single-quoted and unquoted values, upper-case attribute
+// names, whitespace around '=', entities, fragments, dot segments and default ports. Comments and
+// other attributes also contain "href=" text that is not a link.
+// - indexOf:       the previous extractor, the page decoded to a String and scanned for href="
+// - regex:         a case-insensitive java.util.regex pattern over the decoded page
+// - LinkExtractor: the streaming state machine, fed 16 KB chunks through one reusable ByteBuffer as
+//                  they would arrive from the network
+// For each it reports MB/s and the number of hrefs found against the number of real links generated.
+// Finally it times LinkExtractor together with resolving and normalizing every link.
+// Run with: java LinkExtractorBenchmark [pages] [passes]
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LinkExtractorBenchmark {
+    private static final int CHUNK = 16 * 1024;
+    private static final Pattern HREF = Pattern.compile("(?i)\\bhref\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s>]+))");
+    private static final URI BASE = URI.create("https://www.example.com/docs/guide/index.html");
+
+    private static int generatedLinks;
+
+    public static void main(String[] args) {
+        int pageCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        byte[][] pages = new byte[pageCount][];
+        SplittableRandom random = new SplittableRandom(42);
+        long bytes = 0;
+        for (int i = 0; i < pageCount; i++) {
+            pages[i] = page(random, i).getBytes(StandardCharsets.UTF_8);
+            bytes += pages[i].length;
+        }
+        System.out.printf("%,d pages, %.1f MB, %,d links%n", pageCount, bytes / 1e6, generatedLinks);
+
+        for (int round = 0; round < 2; round++) { // The first round warms up
+            boolean report = round == 1;
+            run("indexOf", pages, bytes, passes, report, LinkExtractorBenchmark::indexOf);
+            run("regex", pages, bytes, passes, report, LinkExtractorBenchmark::regex);
+            LinkExtractor extractor = new LinkExtractor();
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+            run("LinkExtractor", pages, bytes, passes, report, page -> stream(extractor, buffer, page, false));
+            run("LinkExtractor + resolve", pages, bytes, passes, report, page -> stream(extractor, buffer, page, true));
+        }
+    }
+
+    private interface Extraction {
+        int hrefs(byte[] page);
+    }
+
+    private static void run(String name, byte[][] pages, long bytes, int passes, boolean report,
+                            Extraction extraction) {
+        long hrefs = 0;
+        long start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            for (byte[] page : pages) hrefs += extraction.hrefs(page);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (report) {
+            System.out.printf("  %-24s %8.1f MB/s  %,10d hrefs%n", name, bytes * passes / 1e6 / seconds,
+                    hrefs / passes);
+        }
+    }
+
+    private static int indexOf(byte[] page) {
+        String html = new String(page, StandardCharsets.ISO_8859_1);
+        int found = 0;
+        for (int start = html.indexOf("href=\""); start >= 0; start = html.indexOf("href=\"", start)) {
+            start += 6;
+            int end = html.indexOf('"', start);
+            if (end < 0) break;
+            if (!html.substring(start, end).isEmpty()) found++;
+            start = end;
+        }
+        return found;
+    }
+
+    private static int regex(byte[] page) {
+        Matcher matcher = HREF.matcher(new String(page, StandardCharsets.ISO_8859_1));
+        int found = 0;
+        while (matcher.find()) found++;
+        return found;
+    }
+
+    private static int stream(LinkExtractor extractor, ByteBuffer buffer, byte[] page, boolean resolve) {
+        extractor.reset();
+        for (int offset = 0; offset < page.length; offset += CHUNK) {
+            buffer.clear();
+            buffer.put(page, offset, Math.min(CHUNK, page.length - offset)).flip();
+            extractor.feed(buffer);
+        }
+        if (!resolve) return extractor.hrefs().size();
+        int resolved = 0;
+        for (String href : extractor.hrefs()) {
+            if (LinkExtractor.resolve(BASE, href) != null) resolved++;
+        }
+        return resolved;
+    }
+
+    // A page of about 30 KB
+    private static String page(SplittableRandom random, int number) {
+        StringBuilder html = new StringBuilder(40_000);
+        html.append("<!DOCTYPE html>\n<html lang=\"en\"><head><meta charset=\"utf-8\"><title>Article ")
+                .append(number).append("</title>\n");
+        link(html.append("<link rel=\"stylesheet\" "), "href=\"/static/site.css?v=3\"").append(">\n");
+        html.append("</head>\n<body class=\"article\" data-id=\"").append(number).append("\">\n");
+        while (html.length() < 30_000) {
+            html.append("<div class=\"section col-").append(random.nextInt(12))
+                    .append("\" style=\"margin: 0 auto; padding: 4px\">\n<p>");
+            for (int word = 20 + random.nextInt(60); word > 0; word--) {
+                html.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                if (random.nextInt(25) == 0) {
+                    int target = random.nextInt(100_000);
+                    switch (random.nextInt(7)) {
+                        case 0 -> link(html.append("<a "), "href=\"/articles/" + target + ".html\"");
+                        case 1 -> link(html.append("<a class='ext' "),
+                                "href='https://Partner" + target % 50 + ".example.org:443/a/b/../c?id=" + target + "#top'");
+                        case 2 -> link(html.append("<A "), "HREF=" + target + ".html");
+                        case 3 -> link(html.append("<a title=\"see href=&quot;x&quot;\" "),
+                                "href = \"search?q=" + target + "&amp;page=2\"");
+                        case 4 -> link(html.append("<a data-track=\"nav\" rel=\"nofollow\"\n   "),
+                                "href=\"../images/" + target + ".png\"");
+                        case 5 -> link(html.append("<a "), "href=\"mailto:editor" + target + "@example.com\"");
+                        default -> link(html.append("<a "), "href=\"http://www.example.com:80/docs/" + target + "\"");
+                    }
+                    html.append(">").append(WORDS[random.nextInt(WORDS.length)]).append("</a> ");
+                }
+            }
+            html.append("</p>\n");
+            if (random.nextInt(8) == 0) html.append("<!-- old layout: <a href=\"/legacy\">legacy</a> -->\n");
+            html.append("</div>\n");
+        }
+        html.append("</body></html>\n");
+        return html.toString();
+    }
+
+    private static StringBuilder link(StringBuilder html, String attribute) {
+        generatedLinks++;
+        return html.append(attribute);
+    }
+
+    private static final String[] WORDS = ("lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua enim ad minim veniam quis nostrud exercitation "
+            + "ullamco laboris nisi aliquip ex ea commodo consequat &amp; 3 < 4 caf\u00e9 na\u00efve").split(" ");
+}
@@ -0,0 +1,144 @@
+// Local stand-in for the web, used by the crawler benchmarks instead of real sites.
+// A com.sun.net.httpserver.HttpServer on 127.0.0.1 serves a synthetic link graph of numbered pages:
+// GET /page/{id} returns a small HTML page linking to its two children (2id+1 and 2id+2, so every
+// page is reachable from page 0) and to a few pseudo-random pages, which gives the crawler duplicate
+// links to filter out. Links are a mix of absolute and relative hrefs. The graph is a pure function
+// of the seed, and an optional fixed delay per response stands in for network latency. Requests are
+// handled on virtual threads so that slow responses do not limit the server's concurrency.
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class LinkGraphServer implements AutoCloseable {
+    private static final String PAGE_PREFIX = "/page/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int pages;
+    private final int randomLinks;
+    private final long seed;
+    private final int latencyMillis;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    private final AtomicLong firstRequestNanos = new AtomicLong(), lastRequestNanos = new AtomicLong();
+
+    // Starts serving pages 0 .. pages-1 on an ephemeral port
+    LinkGraphServer(int pages, int randomLinks, long seed, int latencyMillis) throws IOException {
+        this.pages = pages;
+        this.randomLinks = randomLinks;
+        this.seed = seed;
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String pageUrl(int page) {
+        return "http://127.0.0.1:" + port() + PAGE_PREFIX + page;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    int pages() {
+        return pages;
+    }
+
+    // Number of requests served so far
+    long requests() {
+        return requests.get();
+    }
+
+    // Largest number of requests this server has been handling at the same time
+    int maxConcurrentRequests() {
+        return maxActiveRequests.get();
+    }
+
+    // Average request rate between the first and the last request, 0 if fewer than two were served
+    double requestsPerSecond() {
+        long span = lastRequestNanos.get() - firstRequestNanos.get();
+        return span <= 0 ? 0 : (requests.get() - 1) / (span / 1e9);
+    }
+
+    // HTML of a page, the same for every request
+    String pageHtml(int page) {
+        StringBuilder html = new StringBuilder(256);
+        html.append("<!DOCTYPE html>\n<html><head><title>Page ").append(page).append("</title></head>\n<body>\n");
+        html.append("<h1>Page ").append(page).append("</h1>\n<ul>\n");
+        for (long child = 2L * page + 1; child <= 2L * page + 2 && child < pages; child++) {
+            html.append("<li><a href=\"http://127.0.0.1:").append(port()).append(PAGE_PREFIX).append(child)
+                    .append("\">Child ").append(child).append("</a></li>\n");
+        }
+        SplittableRandom random = new SplittableRandom(seed * 31 + page);
+        for (int i = 0; i < randomLinks; i++) {
+            int target = random.nextInt(pages);
+            html.append("<li><a class=\"related\" href=\"").append(target).append("\">Related ").append(target)
+                    .append("</a></li>\n");
+        }
+        html.append("</ul>\n</body></html>\n");
+        return html.toString();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long now = System.nanoTime();
+        if (requests.incrementAndGet() == 1) firstRequestNanos.set(now);
+        lastRequestNanos.accumulateAndGet(now, Math::max);
+        maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+        try (exchange) {
+            int page = pageNumber(exchange.getRequestURI().getPath());
+            if (page < 0 || !"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = pageHtml(page).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    // Page number of a /page/{id} path, or -1 if the path is not a page of this graph
+    private int pageNumber(String path) {
+        if (!path.startsWith(PAGE_PREFIX) || path.length() == PAGE_PREFIX.length()
+                || path.length() > PAGE_PREFIX.length() + 9) {
+            return -1;
+        }
+        int page = 0;
+        for (int i = PAGE_PREFIX.length(); i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            page = page * 10 + (c - '0');
+        }
+        return page < pages ? page : -1;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
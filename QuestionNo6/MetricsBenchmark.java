@@ -0,0 +1,105 @@
+// Overhead of CrawlMetrics.
+// - recording: the work the crawler does per page for its metrics (the URL's host key, fetchStarted,
+//              fetchFinished, parsed) on synthetic URLs spread over 8 hosts, from 1 and from 4 threads,
+//              minus the cost of generating the values; reported as nanoseconds per page
+// - crawl:     a full WebCrawler run over a local LinkGraphServer with no latency (so the crawler's
+//              own costs dominate), reading the metrics through JMX while it runs; the recording cost
+//              times the number of pages is set against the crawl time
+// Run with: java MetricsBenchmark [pages]
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.SplittableRandom;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MetricsBenchmark {
+    private static final int RECORDS = 5_000_000;
+    private static final String[] URLS = new String[1024];
+
+    static {
+        for (int i = 0; i < URLS.length; i++) URLS[i] = "http://host" + i % 8 + ".example.com/articles/" + i;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        double perPage = 0;
+        for (int round = 0; round < 2; round++) { // The first round warms up
+            perPage = recording(1);
+            double contended = recording(4);
+            if (round == 1) {
+                System.out.printf("recording: %.0f ns/page (1 thread), %.0f ns/page (4 threads)%n", perPage, contended);
+            }
+        }
+
+        try (LinkGraphServer server = new LinkGraphServer(pages, 4, 1, 0)) {
+            WebCrawler crawler = new WebCrawler(4, Integer.MAX_VALUE, 256, new FifoFrontier());
+            crawler.setVerbose(false);
+            Thread watcher = new Thread(() -> watch(crawler));
+            watcher.setDaemon(true);
+            watcher.start();
+            long start = System.nanoTime();
+            crawler.startCrawling(server.pageUrl(0));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            CrawlMetrics.Snapshot snapshot = crawler.metrics().snapshot();
+            System.out.printf("crawl: %,d pages in %.2f s (%,.0f pages/sec); metrics overhead about %.2f%%%n",
+                    snapshot.pagesFetched, seconds, snapshot.pagesFetched / seconds,
+                    100 * perPage * snapshot.pagesFetched / (seconds * 1e9));
+            System.out.println("final snapshot: " + snapshot);
+        }
+    }
+
+    // Nanoseconds of recording per page with the given number of threads sharing one CrawlMetrics
+    private static double recording(int threads) throws InterruptedException {
+        CrawlMetrics metrics = new CrawlMetrics(() -> 0, () -> 0);
+        double withMetrics = run(threads, metrics);
+        double baseline = run(threads, null);
+        return Math.max(0, withMetrics - baseline);
+    }
+
+    private static double run(int threads, CrawlMetrics metrics) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long[] sinks = new long[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                long sink = 0;
+                for (int i = 0; i < RECORDS; i++) {
+                    String url = URLS[random.nextInt(URLS.length)];
+                    long fetchNanos = 1_000_000 + random.nextInt(50_000_000);
+                    long parseNanos = 5_000 + random.nextInt(100_000);
+                    if (metrics != null) {
+                        String host = PoliteFrontier.hostKey(url);
+                        metrics.fetchStarted(host);
+                        metrics.fetchFinished(host, fetchNanos, 30_000, false);
+                        metrics.parsed(parseNanos, 4);
+                    } else {
+                        sink += url.length() + fetchNanos + parseNanos;
+                    }
+                }
+                sinks[id] = sink;
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+        return (System.nanoTime() - start) / ((double) RECORDS * threads); // Wall time over all pages
+    }
+
+    // Reads the crawler's MXBean once the crawl is under way, the way a JMX client would
+    private static void watch(WebCrawler crawler) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            while (crawler.metrics().getPagesFetched() < 1000) Thread.sleep(5);
+            Set<ObjectName> names = server.queryNames(new ObjectName("WebCrawler:type=CrawlMetrics,*"), null);
+            for (ObjectName name : names) {
+                System.out.printf("JMX %s: PagesFetched=%s InFlight=%s FrontierSize=%s FetchLatencyP99Micros=%s%n",
+                        name, server.getAttribute(name, "PagesFetched"), server.getAttribute(name, "InFlight"),
+                        server.getAttribute(name, "FrontierSize"), server.getAttribute(name, "FetchLatencyP99Micros"));
+            }
+        } catch (Exception e) {
+            System.err.println("JMX read failed: " + e);
+        }
+    }
+}
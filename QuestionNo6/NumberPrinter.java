@@ -0,0 +1,14 @@
+// Class responsible for printing numbers
+class NumberPrinter {
+    public void printZero() {
+        System.out.print(0); // Prints "0"
+    }
+
+    public void printEven(int num) {
+        System.out.print(num); // Prints even numbers
+    }
+
+    public void printOdd(int num) {
+        System.out.print(num); // Prints odd numbers
+    }
+}
@@ -11,88 +11,24 @@ Algorithm Explanation:
    - ZeroThread prints "0", then releases either evenSemaphore or oddSemaphore.
    - The corresponding thread prints the number and releases zeroSemaphore again.
    - This ensures correct interleaved execution: "0102030405..."
+4. SpinThreadController is an alternative engine for large n: the same protocol driven by an
+   AtomicInteger turn counter, where threads spin briefly and only park when the wait is long.
+   NumberSequenceBenchmark compares the handoffs per second of both engines.
+5. BufferedNumberPrinter appends the digits into a buffer that is written out in 64 KB chunks;
+   main joins the threads and flushes it, producing the same bytes as printing each number.
+6. Sequencer generalizes this protocol to any number of participants in a round-robin or
+   predicate-driven order, on platform or virtual threads.
 */
 
-import java.util.concurrent.Semaphore; // Import Semaphore for thread synchronization
-
-// Class responsible for printing numbers
-class NumberPrinter {
-    public void printZero() {
-        System.out.print(0); // Prints "0"
-    }
-
-    public void printEven(int num) {
-        System.out.print(num); // Prints even numbers
-    }
-
-    public void printOdd(int num) {
-        System.out.print(num); // Prints odd numbers
-    }
-}
-
-// Controller class to manage threads
-class ThreadController {
-    private int n; // Upper limit for sequence
-    private Semaphore zeroSemaphore = new Semaphore(1); // Starts unlocked for ZeroThread
-    private Semaphore oddSemaphore = new Semaphore(0);  // Starts locked, unlocks for OddThread
-    private Semaphore evenSemaphore = new Semaphore(0); // Starts locked, unlocks for EvenThread
-    private NumberPrinter printer; // Instance of NumberPrinter
-
-    // Constructor to initialize values
-    public ThreadController(int n, NumberPrinter printer) {
-        this.n = n;
-        this.printer = printer;
-    }
-
-    // Thread for printing 0 before each number
-    public void zeroThread() {
-        try {
-            for (int i = 1; i <= n; i++) { 
-                zeroSemaphore.acquire();  // Wait for permission to print "0"
-                printer.printZero();      // Print "0"
-                if (i % 2 == 0) {
-                    evenSemaphore.release(); // Unlock EvenThread
-                } else {
-                    oddSemaphore.release(); // Unlock OddThread
-                }
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-    }
-
-    // Thread for printing even numbers
-    public void evenThread() {
-        try {
-            for (int i = 2; i <= n; i += 2) { 
-                evenSemaphore.acquire(); // Wait until evenSemaphore is unlocked
-                printer.printEven(i);    // Print even number
-                zeroSemaphore.release(); // Unlock ZeroThread for next iteration
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-    }
-
-    // Thread for printing odd numbers
-    public void oddThread() {
-        try {
-            for (int i = 1; i <= n; i += 2) { 
-                oddSemaphore.acquire(); // Wait until oddSemaphore is unlocked
-                printer.printOdd(i);    // Print odd number
-                zeroSemaphore.release(); // Unlock ZeroThread for next iteration
-            }
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-    }
-}
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 
 // Main class to execute the program
 public class NumberSequence {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         int n = 5; // Test case: Print sequence up to 5
-        NumberPrinter printer = new NumberPrinter();
+        // Write straight to standard output in chunks rather than through System.out per number
+        BufferedNumberPrinter printer = new BufferedNumberPrinter(new FileOutputStream(FileDescriptor.out));
         ThreadController controller = new ThreadController(n, printer);
 
         // Creating threads
@@ -104,6 +40,12 @@ public class NumberSequence {
         zeroThread.start();
         evenThread.start();
         oddThread.start();
+
+        // Wait for all three threads, then write the buffered output
+        zeroThread.join();
+        evenThread.join();
+        oddThread.join();
+        printer.flush();
     }
 }
 
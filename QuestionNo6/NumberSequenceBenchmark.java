@@ -0,0 +1,104 @@
+// Harness comparing the two NumberSequence engines: ThreadController (semaphores, a park/unpark pair
+// per printed number) and SpinThreadController (AtomicInteger turn counter, spin then park).
+// Printing is replaced by a printer that only checks the order, so the figures measure the handoffs
+// between the threads and not console I/O. A sequence up to n takes 2n handoffs.
+// A second comparison measures the output path: NumberPrinter (System.out.print per number) against
+// BufferedNumberPrinter (chunked writes), both writing to a discarding stream so the terminal does
+// not distort the result.
+// Run with: java NumberSequenceBenchmark [n]   (default n = 10^7)
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+public class NumberSequenceBenchmark {
+
+    // Verifies that the numbers arrive as 0 1 0 2 0 3 ... without printing them
+    static class CheckingPrinter extends NumberPrinter {
+        private int expectedNumber = 1;
+        private boolean zeroPrinted;
+        private boolean outOfOrder;
+
+        @Override
+        public void printZero() {
+            if (zeroPrinted) outOfOrder = true;
+            zeroPrinted = true;
+        }
+
+        @Override
+        public void printEven(int num) {
+            printNumber(num);
+        }
+
+        @Override
+        public void printOdd(int num) {
+            printNumber(num);
+        }
+
+        private void printNumber(int num) {
+            if (!zeroPrinted || num != expectedNumber) outOfOrder = true;
+            zeroPrinted = false;
+            expectedNumber++;
+        }
+
+        // The threads hand off in order, so each one sees the previous writes; read after join()
+        boolean completed(int n) {
+            return !outOfOrder && expectedNumber == n + 1;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.printf("n = %,d (%,d handoffs per run), %d cores%n", n, 2L * n,
+                Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) { // The first round warms up the JIT
+            CheckingPrinter semaphorePrinter = new CheckingPrinter();
+            ThreadController semaphores = new ThreadController(n, semaphorePrinter);
+            long semaphoreNanos = run(semaphores::zeroThread, semaphores::evenThread, semaphores::oddThread);
+
+            CheckingPrinter spinPrinter = new CheckingPrinter();
+            SpinThreadController spin = new SpinThreadController(n, spinPrinter);
+            long spinNanos = run(spin::zeroThread, spin::evenThread, spin::oddThread);
+
+            PrintStream console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream(), true));
+            long printNanos;
+            try {
+                ThreadController printing = new ThreadController(n, new NumberPrinter());
+                printNanos = run(printing::zeroThread, printing::evenThread, printing::oddThread);
+            } finally {
+                System.setOut(console);
+            }
+            BufferedNumberPrinter bufferedPrinter = new BufferedNumberPrinter(OutputStream.nullOutputStream());
+            ThreadController buffered = new ThreadController(n, bufferedPrinter);
+            long bufferedNanos = run(buffered::zeroThread, buffered::evenThread, buffered::oddThread);
+            bufferedPrinter.flush();
+
+            if (round == 1) {
+                report("semaphores", n, semaphoreNanos, semaphorePrinter.completed(n));
+                report("spin/park ", n, spinNanos, spinPrinter.completed(n));
+                System.out.println("  output path (semaphore engine):");
+                report("System.out", n, printNanos, true);
+                report("buffered  ", n, bufferedNanos, true);
+            }
+        }
+    }
+
+    private static long run(Runnable zero, Runnable even, Runnable odd) throws InterruptedException {
+        Thread zeroThread = new Thread(zero);
+        Thread evenThread = new Thread(even);
+        Thread oddThread = new Thread(odd);
+        long start = System.nanoTime();
+        zeroThread.start();
+        evenThread.start();
+        oddThread.start();
+        zeroThread.join();
+        evenThread.join();
+        oddThread.join();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, int n, long nanos, boolean inOrder) {
+        System.out.printf("  %s: %,12.0f handoffs/sec (%,.0f ms)%s%n", name, 2L * n / (nanos / 1e9),
+                nanos / 1e6, inOrder ? "" : "  SEQUENCE OUT OF ORDER");
+    }
+}
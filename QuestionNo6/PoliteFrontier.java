@@ -0,0 +1,172 @@
+// CrawlFrontier that keeps the crawl polite to every host while keeping many hosts busy at once.
+// URLs are queued per host (scheme://host:port). Each host has
+// - a token bucket: it may be fetched at most ratePerSecond times per second on average, with bursts
+//   of up to burst requests, and
+// - a concurrency cap: at most maxConcurrentPerHost of its fetches may be in flight.
+// Hosts that have queued URLs and a free concurrency slot sit in a ready-heap ordered by the time their
+// bucket next holds a token. take() pops the host with the earliest time, sleeping on a condition until
+// that time if it is still in the future; the host goes back into the heap as long as it stays
+// eligible. A host at its concurrency cap leaves the heap until completed() reports one of its fetches
+// finished. One slow or throttled host therefore only holds back its own URLs, while every other host
+// keeps being served in order of readiness.
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class PoliteFrontier implements CrawlFrontier {
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxConcurrentPerHost;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition(); // Work added, a host freed, or closed
+    private final HashMap<String, Host> hosts = new HashMap<>();
+    private final PriorityQueue<Host> ready = new PriorityQueue<>((a, b) -> Long.compare(a.readyAt, b.readyAt));
+    private long size;
+    private boolean closed;
+
+    PoliteFrontier(double ratePerSecond, int burst, int maxConcurrentPerHost) {
+        if (ratePerSecond <= 0 || burst < 1 || maxConcurrentPerHost < 1) {
+            throw new IllegalArgumentException("Host limits must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+    }
+
+    private final class Host {
+        final ArrayDeque<HostEntry> queue = new ArrayDeque<>();
+        int inFlight;
+        double tokens = burst; // A new host may start with a full burst
+        long refilledAt = System.nanoTime();
+        long readyAt; // When the bucket next holds a token; only meaningful while in the heap
+        boolean inHeap;
+
+        boolean eligible() {
+            return !queue.isEmpty() && inFlight < maxConcurrentPerHost;
+        }
+
+        void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / 1e9);
+            refilledAt = now;
+        }
+
+        long nextTokenAt(long now) {
+            refill(now);
+            return tokens >= 1 ? now : now + (long) Math.ceil((1 - tokens) * 1e9 / ratePerSecond);
+        }
+    }
+
+    private static final class HostEntry extends Entry {
+        final Host host;
+
+        HostEntry(String url, int depth, Host host) {
+            super(url, depth);
+            this.host = host;
+        }
+    }
+
+    @Override
+    public void add(String url, int depth) {
+        String key = hostKey(url);
+        lock.lock();
+        try {
+            Host host = hosts.computeIfAbsent(key, k -> new Host());
+            host.queue.add(new HostEntry(url, depth, host));
+            size++;
+            schedule(host);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Entry take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Host host = ready.peek();
+                if (host == null) {
+                    if (closed && size == 0) return null;
+                    changed.await();
+                    continue;
+                }
+                long wait = host.readyAt - System.nanoTime();
+                if (wait > 0) {
+                    changed.awaitNanos(wait); // Woken early if an earlier host becomes ready
+                    continue;
+                }
+                ready.poll();
+                host.inHeap = false;
+                host.refill(System.nanoTime());
+                host.tokens -= 1;
+                host.inFlight++;
+                HostEntry entry = host.queue.poll();
+                size--;
+                schedule(host);
+                return entry;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void completed(Entry entry) {
+        Host host = ((HostEntry) entry).host;
+        lock.lock();
+        try {
+            host.inFlight--;
+            schedule(host);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Puts the host into the ready-heap if it can be fetched and is not there yet
+    private void schedule(Host host) {
+        if (host.inHeap || !host.eligible()) return;
+        host.readyAt = host.nextTokenAt(System.nanoTime());
+        host.inHeap = true;
+        ready.add(host);
+        changed.signalAll();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // scheme://host:port of a URL; URLs that cannot be parsed share one bucket
+    static String hostKey(String url) {
+        try {
+            URI uri = URI.create(url);
+            String host = uri.getHost();
+            if (host == null) return "";
+            return (uri.getScheme() + "://" + host + ":" + uri.getPort()).toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
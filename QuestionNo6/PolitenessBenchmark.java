@@ -0,0 +1,54 @@
+// Checks WebCrawler's per-host politeness against several local LinkGraphServers on different ports,
+// one per host. One host is slow (300 ms per response), the rest answer in 20 ms. The same crawl,
+// seeded with page 0 of every host, runs twice:
+// - polite: PoliteFrontier with 50 requests/second (bursts of 5) and 2 concurrent fetches per host
+// - fifo:   FifoFrontier, no per-host limits
+// For each run it reports the overall pages/sec and, per host, the highest number of concurrent
+// requests and the average request rate that the server observed.
+// Run with: java PolitenessBenchmark [hosts] [pagesPerHost]
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PolitenessBenchmark {
+    private static final double RATE = 50;
+    private static final int BURST = 5;
+    private static final int MAX_CONCURRENT = 2;
+
+    public static void main(String[] args) throws Exception {
+        int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        System.out.printf("%d hosts x %,d pages; limits: %.0f requests/sec (burst %d), %d concurrent per host%n",
+                hosts, pages, RATE, BURST, MAX_CONCURRENT);
+        run("polite", hosts, pages, new PoliteFrontier(RATE, BURST, MAX_CONCURRENT));
+        run("fifo", hosts, pages, new FifoFrontier());
+    }
+
+    private static void run(String name, int hostCount, int pages, CrawlFrontier frontier) throws Exception {
+        List<LinkGraphServer> servers = new ArrayList<>();
+        try {
+            List<String> seeds = new ArrayList<>();
+            for (int h = 0; h < hostCount; h++) {
+                LinkGraphServer server = new LinkGraphServer(pages, 4, h, h == 0 ? 300 : 20);
+                servers.add(server);
+                seeds.add(server.pageUrl(0));
+            }
+            WebCrawler crawler = new WebCrawler(4, Integer.MAX_VALUE, 64, frontier);
+            crawler.setVerbose(false);
+            long start = System.nanoTime();
+            crawler.startCrawling(seeds);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%s: %,d pages in %.1f s, %,.0f pages/sec%n", name, crawler.pagesCrawled(), seconds,
+                    crawler.pagesCrawled() / seconds);
+            for (int h = 0; h < hostCount; h++) {
+                LinkGraphServer server = servers.get(h);
+                System.out.printf("  host %d (port %d%s): max %3d concurrent, %6.1f requests/sec%n", h,
+                        server.port(), h == 0 ? ", slow" : "", server.maxConcurrentRequests(),
+                        server.requestsPerSecond());
+            }
+        } finally {
+            for (LinkGraphServer server : servers) server.close();
+        }
+    }
+}
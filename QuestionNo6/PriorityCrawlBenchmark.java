@@ -0,0 +1,167 @@
+// Best-first crawling with PriorityFrontier, against a local LinkGraphServer.
+// - order:      the same crawl with a FifoFrontier and with PriorityFrontier under three scorers. For
+//               each it reports the average true in-degree of the first 10% of pages fetched (the
+//               in-degrees are counted from every page's HTML beforehand) and how early the "valuable"
+//               pages, those whose number ends in 00, were fetched: the share of them among the first
+//               quarter of fetches and their average position in the fetch order (0 = first, 1 = last).
+// - contention: 256 threads add entries at once while one thread takes them, with PriorityFrontier
+//               spread over 1024 heaps, with its default heap count (1 on a single core, 4 per core
+//               otherwise) and with a single heap, where every add and take contends for the same
+//               lock; reported as operations/sec.
+// Run with: java PriorityCrawlBenchmark [pages]
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class PriorityCrawlBenchmark {
+    private static final int ADDERS = 256;
+    private static final int ADDS_PER_THREAD = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        try (LinkGraphServer server = new LinkGraphServer(pages, 4, 1, 0)) {
+            int[] inDegree = inDegrees(server);
+            System.out.printf("order (%,d pages):%n", pages);
+            order("fifo", server, inDegree, new FifoFrontier());
+            order("shallowFirst", server, inDegree, new PriorityFrontier(UrlScorer.shallowFirst(), 32));
+            order("mostLinked", server, inDegree, new PriorityFrontier(UrlScorer.mostLinked(), 32));
+            order("matching 00$ + shallowFirst", server, inDegree,
+                    new PriorityFrontier(UrlScorer.matching("00$", 100).plus(UrlScorer.shallowFirst()), 32));
+        }
+
+        System.out.printf("contention (%d adding threads x %,d entries, 1 taking thread):%n", ADDERS, ADDS_PER_THREAD);
+        for (int round = 0; round < 2; round++) { // The first round warms up
+            long multiQueue = contention(new PriorityFrontier(UrlScorer.mostLinked(), 4 * ADDERS));
+            long defaultHeaps = contention(new PriorityFrontier(UrlScorer.mostLinked()));
+            long singleLock = contention(new PriorityFrontier(UrlScorer.mostLinked(), 1));
+            if (round == 1) {
+                report(4 * ADDERS + " heaps", multiQueue);
+                report("default heap count", defaultHeaps);
+                report("1 heap (single lock)", singleLock);
+            }
+        }
+    }
+
+    // In-degree of every page: the number of distinct pages linking to it
+    private static int[] inDegrees(LinkGraphServer server) {
+        int[] inDegree = new int[server.pages()];
+        LinkExtractor extractor = new LinkExtractor();
+        for (int page = 0; page < server.pages(); page++) {
+            extractor.reset();
+            byte[] html = server.pageHtml(page).getBytes(StandardCharsets.UTF_8);
+            extractor.feed(html, 0, html.length);
+            Set<String> links = new HashSet<>();
+            URI base = URI.create(server.pageUrl(page));
+            for (String href : extractor.hrefs()) links.add(LinkExtractor.resolve(base, href));
+            for (String link : links) inDegree[pageNumber(link)]++;
+        }
+        return inDegree;
+    }
+
+    private static void order(String name, LinkGraphServer server, int[] inDegree, CrawlFrontier frontier) {
+        RecordingFrontier recording = new RecordingFrontier(frontier);
+        WebCrawler crawler = new WebCrawler(4, Integer.MAX_VALUE, 16, recording);
+        crawler.setVerbose(false);
+        crawler.startCrawling(server.pageUrl(0));
+
+        List<String> fetched = recording.taken;
+        int firstTenth = Math.max(1, fetched.size() / 10);
+        long degrees = 0;
+        for (int i = 0; i < firstTenth; i++) degrees += inDegree[pageNumber(fetched.get(i))];
+        int valuable = 0, early = 0;
+        double positions = 0;
+        for (int i = 0; i < fetched.size(); i++) {
+            if (pageNumber(fetched.get(i)) % 100 != 0) continue;
+            valuable++;
+            if (i < fetched.size() / 4) early++;
+            positions += i / (double) fetched.size();
+        }
+        System.out.printf("  %-28s %,6d pages  in-degree of first 10%%: %.2f  valuable in first 25%%: %5.1f%%"
+                        + "  their mean position: %.2f%n", name, fetched.size(), degrees / (double) firstTenth,
+                100.0 * early / valuable, positions / valuable);
+    }
+
+    private static int pageNumber(String url) {
+        return Integer.parseInt(url.substring(url.lastIndexOf('/') + 1));
+    }
+
+    // Elapsed nanos for ADDERS threads to add their entries while one thread takes all of them
+    private static long contention(CrawlFrontier frontier) throws InterruptedException {
+        int total = ADDERS * ADDS_PER_THREAD;
+        Thread taker = new Thread(() -> {
+            try {
+                for (int i = 0; i < total; i++) frontier.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Thread> adders = new ArrayList<>();
+        long start = System.nanoTime();
+        taker.start();
+        for (int t = 0; t < ADDERS; t++) {
+            int id = t;
+            Thread adder = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    frontier.add("http://host" + id + ".example.com/" + i, random.nextInt(10));
+                }
+            });
+            adders.add(adder);
+            adder.start();
+        }
+        for (Thread adder : adders) adder.join();
+        taker.join();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.printf("  %-28s %,12.0f operations/sec%n", name, 2.0 * ADDERS * ADDS_PER_THREAD / (nanos / 1e9));
+    }
+
+    // Passes everything on to another frontier and remembers the order in which URLs were taken
+    private static final class RecordingFrontier implements CrawlFrontier {
+        private final CrawlFrontier frontier;
+        final List<String> taken = new ArrayList<>(); // Only the crawler's dispatch thread takes
+
+        RecordingFrontier(CrawlFrontier frontier) {
+            this.frontier = frontier;
+        }
+
+        @Override
+        public void add(String url, int depth) {
+            frontier.add(url, depth);
+        }
+
+        @Override
+        public void linked(String url) {
+            frontier.linked(url);
+        }
+
+        @Override
+        public Entry take() throws InterruptedException {
+            Entry entry = frontier.take();
+            if (entry != null) taken.add(entry.url);
+            return entry;
+        }
+
+        @Override
+        public void completed(Entry entry) {
+            frontier.completed(entry);
+        }
+
+        @Override
+        public void close() {
+            frontier.close();
+        }
+
+        @Override
+        public long size() {
+            return frontier.size();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+Algorithm Explanation:
+1. Sequencer generalizes ThreadController to any number of participants, each running on its own
+   thread, that must act strictly one at a time in a declared order:
+   - Order.roundRobin(k): participant (step mod k) acts at each step.
+   - Order.byPredicates(p0, p1, ...): the first participant whose predicate accepts the step acts.
+   - Any other step -> participant function.
+2. Every participant has a slot in an AtomicLongArray holding the step it has been granted (-1 while
+   it has none). A participant waits for its slot with a short spin (Thread.onSpinWait) and then
+   parks. When it has acted, it asks the order who owns the next step, writes that step into the
+   owner's slot and unparks the owner if it is parked. Only the owner of the next step is woken, so a
+   handoff costs the same with 3 participants as with 10,000.
+3. After the last step every participant is woken and exits. If an action throws, the run stops and
+   run() rethrows the exception.
+4. Participants run on platform threads or virtual threads (Thread.ofVirtual), chosen per run.
+   Virtual threads make runs with thousands of mostly parked participants cheap, because a parked
+   virtual thread is a small heap object rather than an OS thread with its own stack.
+5. The zero/odd/even sequence of NumberSequence is one instance: three participants and a predicate
+   order (main below). SequencerBenchmark measures throughput and memory for 3, 100 and 10,000
+   participants in both thread modes.
+*/
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongPredicate;
+
+public class Sequencer {
+    // Spinning only helps when the participant we wait for can run at the same time
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 10 : 0;
+    private static final long NO_STEP = -1;
+
+    enum ThreadMode { PLATFORM, VIRTUAL }
+
+    // Decides which participant acts at each step
+    interface Order {
+        int participantFor(long step);
+
+        static Order roundRobin(int participants) {
+            return step -> (int) (step % participants);
+        }
+
+        // The first participant whose predicate accepts the step acts; a step nobody accepts is an error
+        static Order byPredicates(LongPredicate... predicates) {
+            return step -> {
+                for (int i = 0; i < predicates.length; i++) {
+                    if (predicates[i].test(step)) return i;
+                }
+                throw new IllegalStateException("No participant accepts step " + step);
+            };
+        }
+    }
+
+    // What a participant does when it is its turn
+    interface Action {
+        void act(int participant, long step);
+    }
+
+    private final int participants;
+    private final long steps;
+    private final Order order;
+
+    public Sequencer(int participants, long steps, Order order) {
+        if (participants <= 0) throw new IllegalArgumentException("participants must be positive");
+        this.participants = participants;
+        this.steps = steps;
+        this.order = order;
+    }
+
+    // Runs steps 0 .. steps-1 in order, each on the thread of the participant that owns it, and
+    // returns when all participants have finished
+    public void run(ThreadMode mode, Action action) throws InterruptedException {
+        new Run(action).execute(mode);
+    }
+
+    // State of one run; a Sequencer can be run any number of times
+    private final class Run {
+        private final Action action;
+        private final AtomicLongArray granted = new AtomicLongArray(participants);
+        private final AtomicReferenceArray<Thread> parked = new AtomicReferenceArray<>(participants);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final Thread[] threads = new Thread[participants];
+        private volatile boolean finished;
+
+        Run(Action action) {
+            this.action = action;
+            for (int i = 0; i < participants; i++) granted.set(i, NO_STEP);
+        }
+
+        void execute(ThreadMode mode) throws InterruptedException {
+            Thread.Builder builder = mode == ThreadMode.VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform();
+            for (int i = 0; i < participants; i++) {
+                int participant = i;
+                threads[i] = builder.unstarted(() -> participate(participant));
+            }
+            if (steps > 0) {
+                granted.set(owner(0), 0);
+            } else {
+                finished = true;
+            }
+            for (Thread thread : threads) thread.start();
+            for (Thread thread : threads) thread.join();
+
+            Throwable error = failure.get();
+            if (error instanceof RuntimeException) throw (RuntimeException) error;
+            if (error instanceof Error) throw (Error) error;
+        }
+
+        private int owner(long step) {
+            int participant = order.participantFor(step);
+            if (participant < 0 || participant >= participants) {
+                throw new IllegalStateException("Step " + step + " assigned to unknown participant " + participant);
+            }
+            return participant;
+        }
+
+        private void participate(int participant) {
+            for (long step; (step = awaitTurn(participant)) != NO_STEP; ) {
+                granted.set(participant, NO_STEP);
+                try {
+                    action.act(participant, step);
+                    if (step + 1 == steps) {
+                        finish();
+                    } else {
+                        int next = owner(step + 1);
+                        granted.set(next, step + 1);
+                        Thread waiter = parked.get(next);
+                        if (waiter != null) LockSupport.unpark(waiter);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    finish();
+                }
+            }
+        }
+
+        // Returns the step granted to the participant, or NO_STEP once the run is over
+        private long awaitTurn(int participant) {
+            for (int spins = 0; spins < SPIN_LIMIT; spins++) {
+                long step = granted.get(participant);
+                if (step != NO_STEP) return step;
+                if (finished) return NO_STEP;
+                Thread.onSpinWait();
+            }
+            // Publish that we are parked before re-checking, so the granting thread cannot miss us
+            Thread self = Thread.currentThread();
+            while (true) {
+                long step = granted.get(participant);
+                if (step != NO_STEP) return step;
+                if (finished) return NO_STEP;
+                parked.set(participant, self);
+                if (granted.get(participant) == NO_STEP && !finished) LockSupport.park(this);
+                parked.set(participant, null);
+            }
+        }
+
+        private void finish() {
+            finished = true;
+            for (Thread thread : threads) LockSupport.unpark(thread);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // NumberSequence's protocol: step 2k prints 0, step 2k+1 prints k+1 on the odd or even thread
+        int n = 5;
+        StringBuilder output = new StringBuilder();
+        Sequencer zeroOddEven = new Sequencer(3, 2L * n, Order.byPredicates(
+                step -> step % 2 == 0,                  // Zero
+                step -> step % 2 == 1 && step % 4 == 1, // Odd: numbers 1, 3, 5, ...
+                step -> step % 2 == 1));                // Even
+        zeroOddEven.run(ThreadMode.VIRTUAL, (participant, step) -> output.append(participant == 0 ? 0 : step / 2 + 1));
+        System.out.println(output);
+        // Expected Output: 0102030405
+
+        // Four platform threads taking turns
+        StringBuilder letters = new StringBuilder();
+        new Sequencer(4, 10, Order.roundRobin(4)).run(ThreadMode.PLATFORM,
+                (participant, step) -> letters.append((char) ('A' + participant)));
+        System.out.println(letters);
+        // Expected Output: ABCDABCDAB
+    }
+}
@@ -0,0 +1,73 @@
+// Throughput and memory of Sequencer with 3, 100 and 10,000 round-robin participants, on platform
+// threads and on virtual threads. Each run hands the turn from participant to participant for a
+// fixed number of steps. Halfway through, the acting participant samples the heap in use and the
+// process resident set size (Linux /proc/self/status), while every other participant is waiting,
+// so the figures include the cost of keeping all the waiting threads alive.
+// Run with: java SequencerBenchmark [steps]   (default 10^6)
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SequencerBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        long steps = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        System.out.printf("%,d steps per run, %d cores%n", steps, Runtime.getRuntime().availableProcessors());
+        run(3, steps, Sequencer.ThreadMode.PLATFORM, false); // Warms up the JIT
+        for (int participants : new int[]{3, 100, 10_000}) {
+            for (Sequencer.ThreadMode mode : Sequencer.ThreadMode.values()) {
+                run(participants, steps, mode, true);
+            }
+        }
+    }
+
+    private static void run(int participants, long steps, Sequencer.ThreadMode mode, boolean print)
+            throws InterruptedException {
+        System.gc();
+        long heapBefore = usedHeap();
+        long rssBefore = residentSetSize();
+        long[] midpoint = new long[2]; // Heap and RSS sampled at the middle step
+        long[] checksum = new long[1];
+        Sequencer sequencer = new Sequencer(participants, steps, Sequencer.Order.roundRobin(participants));
+        long start = System.nanoTime();
+        sequencer.run(mode, (participant, step) -> {
+            checksum[0] += participant;
+            if (step == steps / 2) {
+                midpoint[0] = usedHeap();
+                midpoint[1] = residentSetSize();
+            }
+        });
+        long nanos = System.nanoTime() - start;
+
+        long expected = 0; // Sum of (step mod participants) over all steps
+        long rounds = steps / participants, rest = steps % participants;
+        expected += rounds * ((long) participants * (participants - 1) / 2) + rest * (rest - 1) / 2;
+        if (print) {
+            System.out.printf("%,7d participants, %-8s: %,12.0f steps/sec  heap %+,8d KB  rss %9s KB%s%n",
+                    participants, mode.name().toLowerCase(), steps / (nanos / 1e9),
+                    (midpoint[0] - heapBefore) / 1024,
+                    rssBefore < 0 ? "n/a" : String.format("%+,d", (midpoint[1] - rssBefore) / 1024),
+                    checksum[0] == expected ? "" : "  OUT OF ORDER");
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Resident set size in bytes, or -1 where /proc is not available
+    private static long residentSetSize() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,346 @@
+// First-in first-out CrawlFrontier that spills to disk and can be checkpointed, so a long crawl is
+// neither limited by the heap nor lost when the process stops.
+// - At most maxInMemory entries are held in memory (the head of the queue). Once the head is full,
+//   new entries are appended to segment files in the frontier's directory through a FileChannel, as
+//   records of (depth, URL length, UTF-8 bytes). A segment is closed at segmentBytes and a new one
+//   started; take() refills the head from the oldest segment in batches. Entries only go to memory
+//   while nothing is on disk, so FIFO order holds across both.
+// - A segment that has been read to the end is deleted, unless a checkpoint may still point into it:
+//   once the frontier has a checkpoint, read segments are kept until the next checkpoint, which no
+//   longer refers to them, has been renamed into place.
+// - checkpoint() flushes and syncs the open segment and then writes, to a temporary file that is
+//   atomically renamed to "checkpoint", the read and write positions in the segment files, the
+//   entries held in memory, the entries taken but not yet completed, and the fingerprints of a
+//   VisitedUrlSet. The caller must make sure no entries are added or completed while it runs.
+// - A new SpillingFrontier on a directory that holds a checkpoint resumes from it: segment data
+//   written after the checkpoint is discarded, and the entries that were in flight are queued first
+//   so their pages are fetched again. restore() loads the visited fingerprints.
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class SpillingFrontier implements CrawlFrontier {
+    private static final int CHECKPOINT_MAGIC = 0x43524b50; // "CRKP"
+    private static final String CHECKPOINT = "checkpoint";
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final int RECORD_HEADER = 8; // depth and URL length
+
+    private final Path directory;
+    private final int maxInMemory;
+    private final long segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Entry> head = new ArrayDeque<>(); // Oldest queued entries
+    private final LinkedHashSet<Entry> inFlight = new LinkedHashSet<>(); // Taken, not yet completed
+    private long onDisk; // Queued entries in the segment files, all newer than the head
+    private boolean closed;
+
+    // Segment files: entries are read from (readSegment, readOffset) up to (writeSegment, writeOffset)
+    private int readSegment, writeSegment;
+    private long readOffset, writeOffset;
+    private int firstSegment; // Oldest segment file still on disk; those before readSegment are read
+    private boolean checkpointed; // The directory holds a checkpoint, which may refer to read segments
+    private FileChannel reader, writer;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(1 << 16);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(1 << 16);
+    private long[] restoredVisited = new long[0];
+
+    SpillingFrontier(Path directory, int maxInMemory) {
+        this(directory, maxInMemory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    SpillingFrontier(Path directory, int maxInMemory, long segmentBytes) {
+        if (maxInMemory < 1 || segmentBytes < 1) throw new IllegalArgumentException("Sizes must be positive");
+        this.directory = directory;
+        this.maxInMemory = maxInMemory;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(directory);
+            checkpointed = Files.exists(directory.resolve(CHECKPOINT));
+            if (checkpointed) readCheckpoint();
+            discardUncheckpointedSegments();
+            firstSegment = readSegment;
+            writer = FileChannel.open(segment(writeSegment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            writer.truncate(writeOffset);
+            writer.position(writeOffset);
+            readBuffer.limit(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Adds the fingerprints saved in the checkpoint this frontier resumed from (if any) to the set
+    void restore(VisitedUrlSet visited) {
+        for (long fingerprint : restoredVisited) visited.add(fingerprint);
+        restoredVisited = new long[0];
+    }
+
+    @Override
+    public void add(String url, int depth) {
+        lock.lock();
+        try {
+            if (onDisk == 0 && head.size() < maxInMemory) {
+                head.add(new Entry(url, depth));
+            } else {
+                append(url, depth);
+                onDisk++;
+            }
+            notEmpty.signal();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Entry take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (head.isEmpty() && onDisk == 0 && !closed) notEmpty.await();
+            if (head.isEmpty() && onDisk > 0) refill();
+            Entry entry = head.poll();
+            if (entry != null) inFlight.add(entry);
+            return entry;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void completed(Entry entry) {
+        lock.lock();
+        try {
+            inFlight.remove(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queued entries, including those on disk and those restored from a checkpoint
+    @Override
+    public long size() {
+        lock.lock();
+        try {
+            return head.size() + onDisk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Durably records the frontier and the visited fingerprints. Entries that are in flight are saved
+    // as queued, so the caller must hold off adds and completions until it returns.
+    void checkpoint(VisitedUrlSet visited) {
+        lock.lock();
+        try {
+            flushWrites();
+            writer.force(false);
+            Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                        1 << 16));
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(readSegment);
+                out.writeLong(readOffset);
+                out.writeInt(writeSegment);
+                out.writeLong(writeOffset);
+                out.writeLong(onDisk);
+                out.writeInt(inFlight.size() + head.size());
+                for (Entry entry : inFlight) writeEntry(out, entry);
+                for (Entry entry : head) writeEntry(out, entry);
+                out.writeLong(visited.size());
+                visited.forEach(fingerprint -> {
+                    try {
+                        out.writeLong(fingerprint);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            checkpointed = true;
+            deleteReadSegments(); // The new checkpoint starts at readSegment
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes the segment files; the frontier must not be used afterwards
+    void closeFiles() {
+        lock.lock();
+        try {
+            if (reader != null) reader.close();
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        byte[] url = entry.url.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(entry.depth);
+        out.writeInt(url.length);
+        out.write(url);
+    }
+
+    private void readCheckpoint() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(CHECKPOINT)), 1 << 16))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) throw new IOException("Not a frontier checkpoint: " + directory);
+            readSegment = in.readInt();
+            readOffset = in.readLong();
+            writeSegment = in.readInt();
+            writeOffset = in.readLong();
+            onDisk = in.readLong();
+            for (int i = in.readInt(); i > 0; i--) {
+                int depth = in.readInt();
+                byte[] url = new byte[in.readInt()];
+                in.readFully(url);
+                head.add(new Entry(new String(url, StandardCharsets.UTF_8), depth));
+            }
+            long count = in.readLong();
+            if (count > Integer.MAX_VALUE - 8) throw new IOException("Too many visited fingerprints: " + count);
+            restoredVisited = new long[(int) count];
+            for (int i = 0; i < restoredVisited.length; i++) restoredVisited[i] = in.readLong();
+        }
+    }
+
+    // Deletes segments that were read completely or started after the checkpoint
+    private void discardUncheckpointedSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                int number = segmentNumber(file.getFileName().toString());
+                if (number >= 0 && (number < readSegment || number > writeSegment)) Files.delete(file);
+            }
+        }
+    }
+
+    private void append(String url, int depth) throws IOException {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER + bytes.length;
+        if (writeOffset > 0 && writeOffset + length > segmentBytes) { // Start a new segment
+            flushWrites();
+            writer.close();
+            writeSegment++;
+            writeOffset = 0;
+            writer = FileChannel.open(segment(writeSegment), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+        if (writeBuffer.remaining() < length) flushWrites();
+        if (writeBuffer.remaining() < length) { // Longer than the buffer: write it directly
+            ByteBuffer record = ByteBuffer.allocate(length).putInt(depth).putInt(bytes.length).put(bytes).flip();
+            while (record.hasRemaining()) writer.write(record);
+        } else {
+            writeBuffer.putInt(depth).putInt(bytes.length).put(bytes);
+        }
+        writeOffset += length;
+    }
+
+    private void flushWrites() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) writer.write(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    // Moves up to maxInMemory entries from the oldest segment into the head
+    private void refill() throws IOException {
+        flushWrites(); // The newest entries may still be in the write buffer
+        while (head.size() < maxInMemory && onDisk > 0) {
+            if (reader == null) {
+                reader = FileChannel.open(segment(readSegment), StandardOpenOption.READ);
+                reader.position(readOffset);
+                readBuffer.limit(0);
+            }
+            if (readSegment < writeSegment && readOffset == reader.size()) { // Segment done
+                reader.close();
+                reader = null;
+                readSegment++;
+                readOffset = 0;
+                if (!checkpointed) deleteReadSegments();
+                continue;
+            }
+            head.add(readRecord());
+            onDisk--;
+        }
+    }
+
+    // Deletes the segments before readSegment
+    private void deleteReadSegments() throws IOException {
+        for (; firstSegment < readSegment; firstSegment++) Files.deleteIfExists(segment(firstSegment));
+    }
+
+    private Entry readRecord() throws IOException {
+        fill(RECORD_HEADER);
+        int depth = readBuffer.getInt();
+        int length = readBuffer.getInt();
+        byte[] url = new byte[length];
+        for (int copied = 0; copied < length; ) {
+            if (!readBuffer.hasRemaining()) fill(1);
+            int chunk = Math.min(length - copied, readBuffer.remaining());
+            readBuffer.get(url, copied, chunk);
+            copied += chunk;
+        }
+        readOffset += RECORD_HEADER + length;
+        return new Entry(new String(url, StandardCharsets.UTF_8), depth);
+    }
+
+    // Makes at least `bytes` bytes available in the read buffer
+    private void fill(int bytes) throws IOException {
+        readBuffer.compact();
+        while (readBuffer.position() < bytes) {
+            if (reader.read(readBuffer) < 0) throw new IOException("Truncated frontier segment " + readSegment);
+        }
+        readBuffer.flip();
+    }
+
+    private Path segment(int number) {
+        return directory.resolve(String.format("frontier-%08d.seg", number));
+    }
+
+    private static int segmentNumber(String name) {
+        if (!name.startsWith("frontier-") || !name.endsWith(".seg")) return -1;
+        try {
+            return Integer.parseInt(name.substring(9, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
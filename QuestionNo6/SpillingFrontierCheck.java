@@ -0,0 +1,136 @@
+// Resume check for SpillingFrontier with a small in-memory head and small segments, so nearly every
+// entry goes through the segment files and segments are finished, started and read all the time.
+// - replay: random adds, takes, completions and checkpoints against a model of the frontier (a FIFO
+//           queue and the entries in flight). At random points the process "crashes": the files are
+//           closed without a checkpoint and a new SpillingFrontier is opened on the directory. It must
+//           hand out exactly the entries of the last checkpoint, in-flight ones first, and restore
+//           exactly the URLs visited by then.
+// - drained: entries added, checkpointed, then taken past the end of several segments before the
+//           crash; the segments the checkpoint still points into must survive, and must be gone once
+//           a later checkpoint has moved past them.
+// Throws IllegalStateException on the first difference.
+// Run with: java SpillingFrontierCheck [rounds] [seed]
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public class SpillingFrontierCheck {
+    private static final int MAX_IN_MEMORY = 2;
+    private static final long SEGMENT_BYTES = 64;
+
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        drained();
+        SplittableRandom random = new SplittableRandom(seed);
+        long crashes = 0;
+        for (int round = 0; round < rounds; round++) crashes += replay(random, 2_000);
+        System.out.printf("ok: %d rounds, %,d crashes resumed%n", rounds, crashes);
+    }
+
+    private static void drained() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("frontier-check");
+        try {
+            VisitedUrlSet visited = new VisitedUrlSet(64, false);
+            SpillingFrontier frontier = new SpillingFrontier(directory, MAX_IN_MEMORY, SEGMENT_BYTES);
+            for (int i = 0; i < 50; i++) frontier.add("http://example.com/" + i, 1);
+            frontier.checkpoint(visited);
+            for (int i = 0; i < 30; i++) frontier.completed(frontier.take());
+            frontier.closeFiles();
+
+            frontier = new SpillingFrontier(directory, MAX_IN_MEMORY, SEGMENT_BYTES);
+            for (int i = 0; i < 50; i++) frontier.completed(expect(frontier.take(), "http://example.com/" + i));
+            frontier.checkpoint(visited); // Now nothing refers to the read segments
+            frontier.closeFiles();
+            try (Stream<Path> files = Files.list(directory)) {
+                expect(files.filter(file -> file.toString().endsWith(".seg")).count(), 1L);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    // One random run; returns the number of crashes
+    private static int replay(SplittableRandom random, int operations) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("frontier-check");
+        try {
+            VisitedUrlSet visited = new VisitedUrlSet(64, false);
+            SpillingFrontier frontier = new SpillingFrontier(directory, MAX_IN_MEMORY, SEGMENT_BYTES);
+            ArrayDeque<String> queued = new ArrayDeque<>();
+            LinkedHashMap<String, CrawlFrontier.Entry> inFlight = new LinkedHashMap<>(); // In order of take()
+            Set<String> visitedUrls = new HashSet<>();
+            List<String> checkpointed = new ArrayList<>(); // Order the last checkpoint hands entries out in
+            Set<String> checkpointedVisited = new HashSet<>();
+            int next = 0, crashes = 0;
+            for (int op = 0; op < operations; op++) {
+                int action = random.nextInt(100);
+                if (action < 45) {
+                    String url = "http://host" + random.nextInt(4) + ".example.com/" + next++ + "/"
+                            + "x".repeat(random.nextInt(40)); // Records of varied length
+                    frontier.add(url, random.nextInt(5));
+                    queued.add(url);
+                    visited.add(url);
+                    visitedUrls.add(url);
+                } else if (action < 75) {
+                    if (queued.isEmpty()) continue;
+                    CrawlFrontier.Entry entry = frontier.take();
+                    expect(entry.url, queued.poll());
+                    inFlight.put(entry.url, entry);
+                } else if (action < 92) {
+                    if (inFlight.isEmpty()) continue;
+                    String url = inFlight.keySet().iterator().next();
+                    frontier.completed(inFlight.remove(url));
+                } else if (action < 97) {
+                    frontier.checkpoint(visited);
+                    checkpointed = new ArrayList<>(inFlight.keySet());
+                    checkpointed.addAll(queued);
+                    checkpointedVisited = new HashSet<>(visitedUrls);
+                } else {
+                    frontier.closeFiles();
+                    crashes++;
+                    frontier = new SpillingFrontier(directory, MAX_IN_MEMORY, SEGMENT_BYTES);
+                    visited = new VisitedUrlSet(64, false);
+                    frontier.restore(visited);
+                    expect(visited.size(), (long) checkpointedVisited.size());
+                    for (String url : checkpointedVisited) {
+                        if (!visited.contains(url)) throw new IllegalStateException("Visited URL lost: " + url);
+                    }
+                    expect(frontier.size(), (long) checkpointed.size());
+                    queued = new ArrayDeque<>(checkpointed);
+                    inFlight.clear();
+                    visitedUrls = new HashSet<>(checkpointedVisited);
+                }
+            }
+            while (!queued.isEmpty()) expect(frontier.take().url, queued.poll());
+            frontier.closeFiles();
+            return crashes;
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static CrawlFrontier.Entry expect(CrawlFrontier.Entry entry, String url) {
+        expect(entry.url, url);
+        return entry;
+    }
+
+    private static void expect(Object actual, Object expected) {
+        if (!actual.equals(expected)) throw new IllegalStateException("Expected " + expected + " but got " + actual);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+// Controller with the same three threads and the same protocol, but without semaphores.
+// A single AtomicInteger holds whose turn it is: turn 2(i-1) is ZeroThread's turn before number i,
+// and turn 2(i-1)+1 belongs to the thread that prints i. A waiting thread first spins on the counter
+// with Thread.onSpinWait(), which is enough when the other threads run on other cores, and only
+// parks if its turn does not come within SPIN_LIMIT checks. The thread that passes the turn unparks
+// the next thread only if that thread has actually parked, so in the common case a handoff is a
+// single volatile write instead of a park/unpark pair.
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+class SpinThreadController {
+    // Spinning only helps when the thread we wait for can run at the same time
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 12 : 0;
+    private static final int ZERO = 0, ODD = 1, EVEN = 2;
+
+    private final int n; // Upper limit for sequence
+    private final NumberPrinter printer;
+    private final AtomicInteger turn = new AtomicInteger();
+    private final AtomicReferenceArray<Thread> parked = new AtomicReferenceArray<>(3); // Parked thread per role
+
+    public SpinThreadController(int n, NumberPrinter printer) {
+        this.n = n;
+        this.printer = printer;
+    }
+
+    // Thread for printing 0 before each number
+    public void zeroThread() {
+        for (int i = 1; i <= n; i++) {
+            awaitTurn(2 * (i - 1), ZERO);
+            printer.printZero();
+            passTurn(2 * (i - 1) + 1, i % 2 == 0 ? EVEN : ODD);
+        }
+    }
+
+    // Thread for printing even numbers
+    public void evenThread() {
+        for (int i = 2; i <= n; i += 2) {
+            awaitTurn(2 * (i - 1) + 1, EVEN);
+            printer.printEven(i);
+            passTurn(2 * i, ZERO);
+        }
+    }
+
+    // Thread for printing odd numbers
+    public void oddThread() {
+        for (int i = 1; i <= n; i += 2) {
+            awaitTurn(2 * (i - 1) + 1, ODD);
+            printer.printOdd(i);
+            passTurn(2 * i, ZERO);
+        }
+    }
+
+    private void awaitTurn(int expected, int role) {
+        for (int spins = 0; spins < SPIN_LIMIT; spins++) {
+            if (turn.get() == expected) return;
+            Thread.onSpinWait();
+        }
+        // Publish that we are parked before re-checking the turn, so passTurn cannot miss us
+        Thread self = Thread.currentThread();
+        while (turn.get() != expected) {
+            parked.set(role, self);
+            if (turn.get() != expected) LockSupport.park(this);
+            parked.set(role, null);
+        }
+    }
+
+    private void passTurn(int next, int role) {
+        turn.set(next);
+        Thread waiter = parked.get(role);
+        if (waiter != null) LockSupport.unpark(waiter);
+    }
+}
@@ -0,0 +1,60 @@
+// Controller class to manage threads
+
+import java.util.concurrent.Semaphore; // Import Semaphore for thread synchronization
+
+class ThreadController {
+    private int n; // Upper limit for sequence
+    private Semaphore zeroSemaphore = new Semaphore(1); // Starts unlocked for ZeroThread
+    private Semaphore oddSemaphore = new Semaphore(0);  // Starts locked, unlocks for OddThread
+    private Semaphore evenSemaphore = new Semaphore(0); // Starts locked, unlocks for EvenThread
+    private NumberPrinter printer; // Instance of NumberPrinter
+
+    // Constructor to initialize values
+    public ThreadController(int n, NumberPrinter printer) {
+        this.n = n;
+        this.printer = printer;
+    }
+
+    // Thread for printing 0 before each number
+    public void zeroThread() {
+        try {
+            for (int i = 1; i <= n; i++) { 
+                zeroSemaphore.acquire();  // Wait for permission to print "0"
+                printer.printZero();      // Print "0"
+                if (i % 2 == 0) {
+                    evenSemaphore.release(); // Unlock EvenThread
+                } else {
+                    oddSemaphore.release(); // Unlock OddThread
+                }
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Thread for printing even numbers
+    public void evenThread() {
+        try {
+            for (int i = 2; i <= n; i += 2) { 
+                evenSemaphore.acquire(); // Wait until evenSemaphore is unlocked
+                printer.printEven(i);    // Print even number
+                zeroSemaphore.release(); // Unlock ZeroThread for next iteration
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Thread for printing odd numbers
+    public void oddThread() {
+        try {
+            for (int i = 1; i <= n; i += 2) { 
+                oddSemaphore.acquire(); // Wait until oddSemaphore is unlocked
+                printer.printOdd(i);    // Print odd number
+                zeroSemaphore.release(); // Unlock ZeroThread for next iteration
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+// Scoring function for best-first crawling with a PriorityFrontier: the higher a URL's score, the
+// sooner it is fetched. A URL is scored when it is queued and again each time its number of known
+// in-links doubles, so scores that grow with inLinks move popular pages forward while they wait.
+// Scorers add up with plus(), e.g. UrlScorer.mostLinked().plus(UrlScorer.matching("/docs/", 10)).
+
+import java.util.regex.Pattern;
+
+public interface UrlScorer {
+
+    // url: the normalized URL; depth: links followed from a start URL; inLinks: pages seen linking to it
+    double score(String url, int depth, int inLinks);
+
+    default UrlScorer plus(UrlScorer other) {
+        return (url, depth, inLinks) -> score(url, depth, inLinks) + other.score(url, depth, inLinks);
+    }
+
+    // Breadth-first: shallower pages first
+    static UrlScorer shallowFirst() {
+        return (url, depth, inLinks) -> -depth;
+    }
+
+    // Pages with the most in-links first, shallower ones among equals
+    static UrlScorer mostLinked() {
+        return (url, depth, inLinks) -> inLinks - depth * 1e-3;
+    }
+
+    // bonus for URLs in which the regular expression is found, 0 for the rest
+    static UrlScorer matching(String regex, double bonus) {
+        Pattern pattern = Pattern.compile(regex);
+        return (url, depth, inLinks) -> pattern.matcher(url).find() ? bonus : 0;
+    }
+}
@@ -0,0 +1,77 @@
+// Memory and speed of the crawler's visited-URL stores on synthetic URLs.
+// - strings:     the previous store, ConcurrentHashMap.newKeySet() of the URL strings (measured on the
+//                heap after a GC)
+// - fingerprint: VisitedUrlSet without the Bloom filter
+// - fp + bloom:  VisitedUrlSet with the Bloom filter sized for the number of URLs
+// For each store it reports bytes per URL (and the implied size for 10^8 URLs) and the time per add
+// of a new URL and of an already visited one. For the Bloom filter it also reports the false
+// positive rate measured on URLs that were never added, and for the fingerprints the number of
+// distinct URLs that were wrongly reported as already visited (fingerprint collisions).
+// Run with: java VisitedSetBenchmark [urls]   (default 10^7; the strings store uses a tenth of that)
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class VisitedSetBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.printf("%,d synthetic URLs%n", count);
+        strings(Math.max(1, count / 10));
+        fingerprints("fingerprint", count, new VisitedUrlSet(count, false));
+        fingerprints("fp + bloom ", count, new VisitedUrlSet(count, true));
+    }
+
+    static String url(long i) {
+        return "https://host" + (i % 1000) + ".example.com/articles/" + (i * 7919 % 1_000_003) + "/page-" + i
+                + ".html?ref=" + (i % 97);
+    }
+
+    private static void strings(int count) {
+        long before = usedHeap();
+        Set<String> visited = ConcurrentHashMap.newKeySet();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) visited.add(url(i));
+        long addNanos = System.nanoTime() - start;
+        double bytesPerUrl = (usedHeap() - before) / (double) count;
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) visited.add(url(i));
+        long seenNanos = System.nanoTime() - start;
+        report("strings    ", count, bytesPerUrl, addNanos, seenNanos);
+    }
+
+    private static void fingerprints(String name, int count, VisitedUrlSet visited) {
+        long start = System.nanoTime();
+        long collisions = 0;
+        for (int i = 0; i < count; i++) {
+            if (!visited.add(url(i))) collisions++;
+        }
+        long addNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) visited.add(url(i));
+        long seenNanos = System.nanoTime() - start;
+        report(name, count, visited.memoryBytes() / (double) count, addNanos, seenNanos);
+
+        int probes = 1_000_000, falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (visited.mightContain(url(count + (long) i))) falsePositives++;
+        }
+        System.out.printf("               fingerprint collisions: %d", collisions);
+        if (name.contains("bloom")) {
+            System.out.printf(", Bloom false positives: %.3f%%", 100.0 * falsePositives / probes);
+        }
+        System.out.println();
+    }
+
+    // URL generation is included in both timings and is the same for every store
+    private static void report(String name, int count, double bytesPerUrl, long addNanos, long seenNanos) {
+        System.out.printf("  %s %7.1f bytes/URL (%6.1f GB per 10^8)  add %6.0f ns  seen %6.0f ns%n", name,
+                bytesPerUrl, bytesPerUrl * 1e8 / 1e9, addNanos / (double) count, seenNanos / (double) count);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,185 @@
+// Compact, thread-safe set of visited URLs for WebCrawler.
+// Instead of the URL strings, the set stores a 64-bit fingerprint of each URL (FNV-1a over the
+// characters followed by a MurmurHash3 finalizer), so an entry costs 8 bytes in an open-addressing
+// long table instead of a String plus a hash-map node (typically well over 100 bytes). With 10^8 URLs
+// the chance that any two fingerprints collide (and a new URL is wrongly taken as visited) is about
+// 3 * 10^-4.
+//
+// The table is split into 64 stripes chosen by the top bits of the fingerprint, each a linear-probing
+// long[] that doubles at 75% load, with 0 marking an empty slot. Inserts take the stripe's lock;
+// lookups read the stripe's current table without locking (slots are published with release/acquire
+// ordering and old tables stay intact after a resize), so the common "already seen" answer never
+// blocks. Only a fingerprint that the lock-free probe does not find goes through the lock.
+//
+// Optionally a Bloom filter (10 bits per expected URL, 7 hash functions, about 1% false positives at
+// the expected size) sits in front: when it says a fingerprint was never added, the URL is certainly
+// new and the probe of the table is skipped.
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongConsumer;
+
+final class VisitedUrlSet {
+    private static final int STRIPE_BITS = 6;
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+    private static final int BLOOM_BITS_PER_URL = 10;
+    private static final int BLOOM_HASHES = 7;
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+    private final long[] bloom; // null when the filter is disabled
+    private final int bloomMask;
+
+    private static final class Stripe {
+        volatile long[] table = new long[INITIAL_STRIPE_CAPACITY];
+        int size; // Guarded by the stripe's monitor
+    }
+
+    // expectedUrls sizes the Bloom filter; the table itself grows as needed
+    VisitedUrlSet(long expectedUrls, boolean bloomFilter) {
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Stripe();
+        if (bloomFilter) {
+            long bits = Long.highestOneBit(Math.max(64, expectedUrls * BLOOM_BITS_PER_URL - 1)) << 1;
+            if (bits > 1L << 31) bits = 1L << 31; // Indices are ints
+            bloom = new long[(int) (bits >>> 6)];
+            bloomMask = (int) (bits - 1);
+        } else {
+            bloom = null;
+            bloomMask = 0;
+        }
+    }
+
+    // Marks the URL as visited; returns true if it had not been visited before
+    boolean add(String url) {
+        return add(fingerprint(url));
+    }
+
+    boolean contains(String url) {
+        return contains(fingerprint(url));
+    }
+
+    boolean add(long fingerprint) {
+        long key = fingerprint == 0 ? 1 : fingerprint; // 0 marks empty slots
+        Stripe stripe = stripes[(int) (key >>> (64 - STRIPE_BITS))];
+        if (bloomMightContain(key) && probe(stripe.table, key)) return false; // Seen: no lock taken
+        boolean added;
+        synchronized (stripe) {
+            added = insert(stripe, key);
+        }
+        if (added) bloomPut(key);
+        return added;
+    }
+
+    boolean contains(long fingerprint) {
+        long key = fingerprint == 0 ? 1 : fingerprint;
+        return bloomMightContain(key) && probe(stripes[(int) (key >>> (64 - STRIPE_BITS))].table, key);
+    }
+
+    // The Bloom filter's answer alone (true when there is no filter); used to measure its false positives
+    boolean mightContain(String url) {
+        long fingerprint = fingerprint(url);
+        return bloomMightContain(fingerprint == 0 ? 1 : fingerprint);
+    }
+
+    // Number of distinct fingerprints
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    // Passes every stored fingerprint to the action, stripe by stripe; used to checkpoint the set
+    void forEach(LongConsumer action) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (long key : stripe.table) {
+                    if (key != 0) action.accept(key);
+                }
+            }
+        }
+    }
+
+    // Bytes held by the tables and the Bloom filter
+    long memoryBytes() {
+        long bytes = bloom == null ? 0 : 8L * bloom.length;
+        for (Stripe stripe : stripes) bytes += 8L * stripe.table.length;
+        return bytes;
+    }
+
+    private static boolean probe(long[] table, long key) {
+        int mask = table.length - 1;
+        for (int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+            long current = (long) LONGS.getAcquire(table, slot);
+            if (current == key) return true;
+            if (current == 0) return false;
+        }
+    }
+
+    // Caller holds the stripe's lock
+    private static boolean insert(Stripe stripe, long key) {
+        long[] table = stripe.table;
+        int mask = table.length - 1;
+        int slot = (int) key & mask;
+        for (long current; (current = table[slot]) != 0; slot = (slot + 1) & mask) {
+            if (current == key) return false;
+        }
+        if (4L * (stripe.size + 1) > 3L * table.length) { // Keep the load at most 75%
+            table = grow(table);
+            stripe.table = table; // Volatile write publishes the filled copy to lock-free readers
+            mask = table.length - 1;
+            slot = (int) key & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+        }
+        LONGS.setRelease(table, slot, key);
+        stripe.size++;
+        return true;
+    }
+
+    private static long[] grow(long[] table) {
+        long[] grown = new long[table.length * 2];
+        int mask = grown.length - 1;
+        for (long key : table) {
+            if (key == 0) continue;
+            int slot = (int) key & mask;
+            while (grown[slot] != 0) slot = (slot + 1) & mask;
+            grown[slot] = key;
+        }
+        return grown;
+    }
+
+    private boolean bloomMightContain(long key) {
+        if (bloom == null) return true;
+        int h1 = (int) key, h2 = (int) (key >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & bloomMask;
+            if (((long) LONGS.getOpaque(bloom, bit >>> 6) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private void bloomPut(long key) {
+        if (bloom == null) return;
+        int h1 = (int) key, h2 = (int) (key >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & bloomMask;
+            LONGS.getAndBitwiseOr(bloom, bit >>> 6, 1L << bit);
+        }
+    }
+
+    // 64-bit fingerprint of a URL
+    static long fingerprint(String url) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < url.length(); i++) {
+            hash = (hash ^ url.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9a62d53ff5bL;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -1,105 +1,314 @@
 // Algorithm:
 // 1. Initialize WebCrawler:
-//    - Create an instance of WebCrawler with numThreads and maxDepth.
-//    - Set up thread pool with numThreads and initialize urlQueue and visitedUrls.
+//    - Create an instance of WebCrawler with numThreads, maxDepth and the maximum number of requests
+//      in flight.
+//    - Set up a thread pool with numThreads for handling responses, an AsyncFetcher on top of
+//      java.net.http.HttpClient, and initialize the frontier and visitedUrls.
+//    - The default frontier is a PoliteFrontier: per-host queues served from a ready-heap, with a
+//      token bucket and a concurrency cap per host, so no host is hammered or starves the others.
+//    - With a UrlScorer the frontier is a PriorityFrontier instead: a best-first crawl in which the
+//      highest-scoring URLs (by depth, in-links, URL pattern, ...) are fetched first. It does not
+//      limit the rate or concurrency per host, so it is meant for crawls of servers that allow it.
 // 2. Start Crawling:
-//    - Add the starting URL to the urlQueue and mark it as visited.
-//    - Start multiple worker threads to process the crawling task.
-// 3. Worker Thread Execution (CrawlerTask):
-//    - Each thread continuously retrieves URLs from the queue and calls the crawl(url, depth) method.
-// 4. Crawl a Web Page:
-//    - For each URL, attempt to connect and fetch content using HttpURLConnection.
-//    - If the response code is 200, proceed to extract links.
-// 5. Extract Links:
-//    - Simulate extracting links by generating new URLs.
-//    - If a link has not been visited, add it to the queue.
-// 6. Shutdown and Await Termination:
-//    - After submitting crawling tasks, shut down the executor service.
-//    - Await thread termination with a timeout, forcefully shut down if not finished.
-
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
+//    - Add the starting URL(s) to the frontier at depth 0 and mark them as visited.
+//    - The calling thread takes (url, depth) entries from the frontier and dispatches them to the
+//      fetcher; take() blocks while the frontier is empty, so nothing spins.
+// 3. Fetch a Web Page (crawl):
+//    - The fetcher sends the request asynchronously (sendAsync), so no thread is held while waiting for
+//      the server; connections are kept alive and reused. It blocks the dispatcher only when the
+//      maximum number of requests is already in flight.
+//    - When the response is complete, a pool thread handles it: if the response code is 200, links are
+//      queued, and then the frontier is told the page is done (releasing the host's slot).
+// 4. Extract Links:
+//    - Pages below maxDepth with response code 200: a LinkExtractor scans the body for href attributes
+//      while it streams in, byte by byte, without storing it; other bodies are discarded unread.
+//    - The hrefs are resolved against the page's final URL (after redirects) and normalized, so the
+//      same page reached through different spellings of its URL is only crawled once.
+//    - If a link has not been visited, add it to the frontier with depth + 1. visitedUrls keeps 64-bit
+//      fingerprints of the URLs in a striped open-addressing set rather than the strings themselves.
+//    - A link to a URL that was already visited is reported to the frontier as one more in-link.
+// 5. Termination (quiescence detection):
+//    - pending counts the URLs added to the frontier whose page has not been fully processed. A page's
+//      links are counted before the page itself is, so pending only reaches 0 when the frontier is
+//      empty and no fetch can add anything more. At that point the frontier is closed, which ends
+//      the dispatch loop; the crawl never stops early while work is still in flight.
+//    - Finally the thread pool is shut down.
+// 6. Checkpoint and Resume (optional):
+//    - With a checkpoint directory the frontier is a SpillingFrontier: beyond a bounded in-memory head,
+//      queued URLs are appended to segment files on disk, so the frontier is not limited by the heap.
+//    - Every checkpoint interval the crawl is paused briefly (a write lock that link extraction and
+//      page completion take shared) and the frontier positions, the queued and in-flight URLs and the
+//      visited fingerprints are written to the directory. A crawler created on the same directory
+//      later resumes from the last checkpoint; startCrawling skips start URLs that were already seen.
+// 7. Metrics:
+//    - Every fetch (per-host in-flight count, latency, bytes) and every parse (scan and queueing time,
+//      links queued) is recorded in CrawlMetrics with LongAdders and latency histograms.
+//    - metrics().snapshot() reads them, they are registered as a JMX MXBean while the crawl runs, and
+//      with -Dcrawler.metricsSeconds=N a snapshot is printed every N seconds.
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.management.ObjectName;
 
 // WebCrawler class that manages multithreaded crawling
 public class WebCrawler {
-    private final Set<String> visitedUrls = ConcurrentHashMap.newKeySet(); // Store visited URLs to avoid duplicates
-    private final ConcurrentLinkedQueue<String> urlQueue = new ConcurrentLinkedQueue<>(); // Queue for URLs to be crawled
-    private final ExecutorService executorService; // Thread pool for crawling tasks
+    // Fingerprints of visited URLs (8 bytes each) behind a Bloom filter, to avoid duplicates
+    private final VisitedUrlSet visitedUrls = new VisitedUrlSet(1 << 20, true);
+    private final CrawlFrontier frontier; // (url, depth) entries to be crawled
+    private final ExecutorService executorService; // Thread pool for handling responses
+    private final AsyncFetcher fetcher; // Non-blocking HTTP client with a cap on requests in flight
     private final int maxDepth; // Maximum depth to crawl
+    private final AtomicLong pending = new AtomicLong(); // Queued or in-progress pages, for termination
+    private final AtomicLong pagesCrawled = new AtomicLong();
+    private volatile boolean verbose = true;
+    private final SpillingFrontier checkpointFrontier; // null when the crawl is not checkpointed
+    private final Duration checkpointInterval;
+    // Shared by every step that marks URLs visited, queues them or completes a page; exclusive for a checkpoint
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final CrawlMetrics metrics;
+    private CrawlMetrics.Snapshot lastDump; // Only used by the background thread
+
+    // Default politeness: per host at most 2 fetches at a time and 10 per second (bursts of 10)
+    private static final double HOST_RATE_PER_SECOND = 10;
+    private static final int HOST_BURST = 10;
+    private static final int HOST_MAX_CONCURRENT = 2;
+    private static final int FRONTIER_MEMORY_ENTRIES = 100_000; // Queued URLs kept in memory when spilling
+    private static final long METRICS_SECONDS = Long.getLong("crawler.metricsSeconds", 0); // 0: no dumps
 
     // Constructor initializes the thread pool and max depth
     public WebCrawler(int numThreads, int maxDepth) {
+        this(numThreads, maxDepth, 64);
+    }
+
+    public WebCrawler(int numThreads, int maxDepth, int maxInFlight) {
+        this(numThreads, maxDepth, maxInFlight,
+                new PoliteFrontier(HOST_RATE_PER_SECOND, HOST_BURST, HOST_MAX_CONCURRENT));
+    }
+
+    // Crawls with a disk-spilling frontier, checkpointed into checkpointDir; resumes from the checkpoint
+    // found there, if any
+    public WebCrawler(int numThreads, int maxDepth, int maxInFlight, Path checkpointDir, Duration checkpointInterval) {
+        this(numThreads, maxDepth, maxInFlight, new SpillingFrontier(checkpointDir, FRONTIER_MEMORY_ENTRIES),
+                checkpointInterval);
+    }
+
+    // Best-first crawl: URLs are fetched in order of the scorer's score, highest first. Not polite:
+    // hosts are not rate-limited, and only maxInFlight caps the fetches in flight to any one host.
+    public WebCrawler(int numThreads, int maxDepth, int maxInFlight, UrlScorer scorer) {
+        this(numThreads, maxDepth, maxInFlight, new PriorityFrontier(scorer));
+    }
+
+    WebCrawler(int numThreads, int maxDepth, int maxInFlight, CrawlFrontier frontier) {
+        this(numThreads, maxDepth, maxInFlight, frontier, null);
+    }
+
+    private WebCrawler(int numThreads, int maxDepth, int maxInFlight, CrawlFrontier frontier,
+                       Duration checkpointInterval) {
+        this.frontier = frontier;
         this.executorService = Executors.newFixedThreadPool(numThreads); // Create thread pool
+        this.fetcher = new AsyncFetcher(maxInFlight, Duration.ofSeconds(5), executorService); // 5 second timeouts
         this.maxDepth = maxDepth;
+        this.metrics = new CrawlMetrics(frontier::size, fetcher::inFlight);
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointFrontier = checkpointInterval != null ? (SpillingFrontier) frontier : null;
+        if (checkpointFrontier != null) {
+            checkpointFrontier.restore(visitedUrls);
+            pending.set(frontier.size()); // URLs still queued when the checkpoint was taken
+        }
     }
 
-    // Start the crawling process with an initial URL
+    // Start the crawling process with an initial URL; returns when the crawl is complete
     public void startCrawling(String startUrl) {
-        urlQueue.add(startUrl); // Add the initial URL to queue
-        visitedUrls.add(startUrl); // Mark it as visited
+        startCrawling(List.of(startUrl));
+    }
 
-        for (int i = 0; i < 5; i++) { // Start multiple worker threads
-            executorService.execute(new CrawlerTask());
+    // Crawls from several starting URLs (typically on different hosts) at once
+    public void startCrawling(Collection<String> startUrls) {
+        for (String startUrl : startUrls) {
+            String normalized = LinkExtractor.normalize(startUrl);
+            if (normalized != null) startUrl = normalized; // Otherwise the fetch reports the bad URL
+            if (visitedUrls.add(startUrl)) { // Mark it as visited; false for a crawl resumed past it
+                enqueue(startUrl, 0); // Add the initial URL to the frontier
+            }
         }
+        if (pending.get() == 0) frontier.close(); // Nothing to crawl
 
-        executorService.shutdown(); // Shutdown after tasks are submitted
+        metrics.start();
+        ObjectName metricsName = metrics.register();
+        ScheduledExecutorService background = null; // Checkpoints and metrics dumps
+        if (checkpointFrontier != null || METRICS_SECONDS > 0) {
+            background = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "crawl-background");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (checkpointFrontier != null) {
+            long interval = checkpointInterval.toMillis();
+            background.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        if (METRICS_SECONDS > 0) {
+            background.scheduleAtFixedRate(this::dumpMetrics, METRICS_SECONDS, METRICS_SECONDS, TimeUnit.SECONDS);
+        }
         try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+            CrawlFrontier.Entry entry;
+            while ((entry = frontier.take()) != null) { // Blocks while empty; null once the crawl is over
+                crawl(entry);
             }
         } catch (InterruptedException e) {
-            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executorService.shutdown();
+            try {
+                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
+                    executorService.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executorService.shutdownNow();
+            }
+            if (background != null) background.shutdownNow();
+            if (checkpointFrontier != null) {
+                checkpoint(); // After a complete crawl this records an empty frontier
+                checkpointFrontier.closeFiles();
+            }
+            CrawlMetrics.unregister(metricsName);
+            if (METRICS_SECONDS > 0) System.out.println("Crawl metrics: " + metrics.snapshot());
         }
     }
 
-    // Worker task that crawls web pages
-    private class CrawlerTask implements Runnable {
-        @Override
-        public void run() {
-            while (!urlQueue.isEmpty()) {
-                String url = urlQueue.poll(); // Get next URL
-                if (url != null) {
-                    crawl(url, 0); // Start crawling at depth 0
-                }
-            }
+    private void dumpMetrics() {
+        CrawlMetrics.Snapshot snapshot = metrics.snapshot();
+        String recent = lastDump == null ? "" : String.format(" | last %d s: %,.1f pages/s, %,.2f MB/s",
+                METRICS_SECONDS, snapshot.pagesPerSecondSince(lastDump), snapshot.bytesPerSecondSince(lastDump) / 1e6);
+        System.out.println("Crawl metrics: " + snapshot + recent);
+        lastDump = snapshot;
+    }
+
+    // Writes a consistent snapshot: no page is between marking its links visited and completing
+    private void checkpoint() {
+        checkpointLock.writeLock().lock();
+        try {
+            checkpointFrontier.checkpoint(visitedUrls);
+        } catch (RuntimeException e) {
+            System.err.println("Checkpoint failed: " + e.getMessage());
+        } finally {
+            checkpointLock.writeLock().unlock();
         }
     }
 
-    // Method to crawl a single web page
-    private void crawl(String url, int depth) {
-        if (depth > maxDepth) return; // Stop crawling if max depth is reached
+    // Method to crawl a single web page: starts the fetch and returns without waiting for the response
+    private void crawl(CrawlFrontier.Entry entry) throws InterruptedException {
+        String url = entry.url;
+        int depth = entry.depth;
+        if (depth > maxDepth) { // Stop crawling if max depth is reached
+            complete(entry);
+            return;
+        }
 
+        if (verbose) System.out.println("Crawling: " + url);
+        String host = PoliteFrontier.hostKey(url);
+        metrics.fetchStarted(host);
+        CompletableFuture<HttpResponse<LinkExtractor.ScannedBody>> response;
         try {
-            System.out.println("Crawling: " + url);
-            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000); // Set timeout to 5 seconds
-            connection.setReadTimeout(5000);
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == 200) { // If successful response
-                extractLinks(url, depth); // Simulated function to extract links
-            }
-        } catch (IOException e) {
+            // Links are only extracted where they would not exceed maxDepth; other bodies are discarded
+            response = fetcher.fetch(url,
+                    info -> LinkExtractor.subscriber(info.statusCode() == 200 && depth < maxDepth));
+        } catch (InterruptedException e) { // The crawl is being stopped; the page is not completed
+            metrics.fetchFinished(host, 0, 0, true);
+            throw e;
+        } catch (RuntimeException e) { // The request could not be sent; like a failed fetch, skip the page
+            metrics.fetchFinished(host, 0, 0, true);
             System.err.println("Failed to fetch: " + url + " | Error: " + e.getMessage());
+            complete(entry);
+            return;
+        }
+        long sentAt = System.nanoTime();
+        response.whenComplete((page, error) -> {
+            metrics.fetchFinished(host, System.nanoTime() - sentAt, error == null ? page.body().bytes : 0,
+                    error != null);
+            checkpointLock.readLock().lock();
+            try {
+                if (error != null) {
+                    System.err.println("Failed to fetch: " + url + " | Error: " + error.getMessage());
+                } else if (page.statusCode() == 200) { // If successful response
+                    pagesCrawled.incrementAndGet();
+                    if (depth < maxDepth) {
+                        long parseStart = System.nanoTime();
+                        int queued = queueLinks(page.uri(), page.body().hrefs, depth);
+                        metrics.parsed(page.body().scanNanos + System.nanoTime() - parseStart, queued);
+                    }
+                }
+            } finally {
+                frontier.completed(entry); // Same lock as the links, so a checkpoint sees both or neither
+                checkpointLock.readLock().unlock();
+                finishPage();
+            }
+        });
+    }
+
+    // Tells the frontier the entry is done, once its links (if any) are queued
+    private void complete(CrawlFrontier.Entry entry) {
+        checkpointLock.readLock().lock();
+        try {
+            frontier.completed(entry);
+        } finally {
+            checkpointLock.readLock().unlock();
         }
+        finishPage();
     }
 
-    // Simulated function to extract links from a page (replace with real HTML parsing)
-    private void extractLinks(String pageUrl, int depth) {
+    private void enqueue(String url, int depth) {
+        pending.incrementAndGet();
+        frontier.add(url, depth);
+    }
+
+    // Called once per dequeued URL after its links (if any) have been enqueued
+    private void finishPage() {
+        if (pending.decrementAndGet() == 0) frontier.close();
+    }
+
+    // Resolves the hrefs found on a page and queues the links not seen before; returns how many
+    private int queueLinks(URI pageUri, List<String> hrefs, int depth) {
         Set<String> newUrls = new HashSet<>();
-        newUrls.add(pageUrl + "/next1"); // Simulating link extraction
-        newUrls.add(pageUrl + "/next2");
+        for (String href : hrefs) {
+            String link = LinkExtractor.resolve(pageUri, href); // null for malformed and non-http(s) links
+            if (link != null) newUrls.add(link);
+        }
 
+        int queued = 0;
         for (String newUrl : newUrls) {
             if (visitedUrls.add(newUrl)) { // Avoid duplicates
-                urlQueue.add(newUrl); // Add new URLs to the queue
+                enqueue(newUrl, depth + 1); // Add new URLs to the frontier one level deeper
+                queued++;
+            } else {
+                frontier.linked(newUrl); // One more in-link, for frontiers that rank by them
             }
         }
+        return queued;
+    }
+
+    // Number of pages fetched successfully so far
+    long pagesCrawled() {
+        return pagesCrawled.get();
+    }
+
+    // Live counters and latency histograms of this crawler
+    CrawlMetrics metrics() {
+        return metrics;
+    }
+
+    // Turns the per-page "Crawling:" lines on or off
+    void setVerbose(boolean verbose) {
+        this.verbose = verbose;
     }
 
     // Main method to run the crawler